@@ -0,0 +1,58 @@
+package com.pharmacy.management;
+
+import com.pharmacy.management.payload.ProductImportReport;
+import com.pharmacy.management.service.ProductImportService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Command-line product import: start the application with --import-products=catalog.csv (repeatable,
+ * .csv or .jsonl) to import the files and exit, with status 1 if any row failed.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductImportRunner implements ApplicationRunner {
+
+    public static final String OPTION = "import-products";
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportRunner.class);
+
+    private final ProductImportService productImportService;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+
+        boolean failed = false;
+        for (String file : args.getOptionValues(OPTION)) {
+            ProductImportService.Format format = ProductImportService.Format.fromFileName(file);
+            long started = System.currentTimeMillis();
+            ProductImportReport report;
+            try (InputStream input = Files.newInputStream(Path.of(file))) {
+                report = productImportService.importProducts(input, format);
+            }
+
+            logger.info("Imported {}: {} rows read, {} inserted, {} updated, {} failed in {} ms", file,
+                    report.getRowsRead(), report.getInserted(), report.getUpdated(), report.getFailed(),
+                    System.currentTimeMillis() - started);
+            report.getErrors().forEach(error -> logger.warn("{} line {}: {}", file, error.getLine(), error.getMessage()));
+            failed |= report.getFailed() > 0;
+        }
+
+        int exitCode = failed ? 1 : 0;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+}
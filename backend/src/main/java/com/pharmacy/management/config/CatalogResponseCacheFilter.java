@@ -0,0 +1,189 @@
+package com.pharmacy.management.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pharmacy.management.service.CatalogVersion;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves GET /api/products/** from ready-made response bytes keyed by catalog version and URL.
+ * The ETag is the catalog version, so an If-None-Match for the current version is answered 304
+ * before the request reaches a controller, the database or Jackson. Otherwise the first request
+ * for a URL at a version renders normally and its body is kept both as is and gzipped; later
+ * requests get whichever encoding they accept straight from memory.
+ * Runs after Spring Security, so access rules still apply to every request.
+ */
+@Component
+public class CatalogResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final String PREFIX = "/api/products";
+    private static final Set<String> EXCLUDED = Set.of(PREFIX + "/cache/stats", PREFIX + "/suggest");
+    private static final Set<String> UNCACHED_HEADERS = Set.of(
+            HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.DATE, HttpHeaders.SET_COOKIE);
+
+    // Bodies smaller than this are not worth the gzip framing
+    private static final int MIN_GZIP_SIZE = 256;
+
+    private final CatalogVersion catalogVersion;
+    private final Cache<String, CachedResponse> responses;
+
+    public CatalogResponseCacheFilter(CatalogVersion catalogVersion,
+                                      @Value("${app.catalogResponses.maximumBytes:67108864}") long maximumBytes) {
+        this.catalogVersion = catalogVersion;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((String key, CachedResponse response) -> response.weight())
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !"GET".equals(request.getMethod())
+                || !(uri.equals(PREFIX) || uri.startsWith(PREFIX + "/"))
+                || EXCLUDED.contains(uri);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String version = catalogVersion.current();
+        boolean gzip = acceptsGzip(request);
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), version)) {
+            writeValidators(response, version, gzip);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        String key = version + " " + request.getRequestURI() +
+                (request.getQueryString() == null ? "" : "?" + request.getQueryString());
+        CachedResponse cached = responses.getIfPresent(key);
+        if (cached == null) {
+            Set<String> before = new HashSet<>(response.getHeaderNames());
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(request, wrapper);
+
+            // Only complete successful responses rendered entirely at this version are kept
+            if (wrapper.getStatus() != HttpServletResponse.SC_OK || !version.equals(catalogVersion.current())) {
+                wrapper.copyBodyToResponse();
+                return;
+            }
+            cached = CachedResponse.of(wrapper, before);
+            responses.put(key, cached);
+            wrapper.resetBuffer();
+        }
+
+        writeValidators(response, version, gzip && cached.gzipped != null);
+        cached.write(response, gzip);
+    }
+
+    private static void writeValidators(HttpServletResponse response, String version, boolean gzip) {
+        response.setHeader(HttpHeaders.ETAG, "\"" + version + (gzip ? "-gzip" : "") + "\"");
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+    }
+
+    /**
+     * If-None-Match uses weak comparison, and either encoding of the current version still matches
+     */
+    private static boolean matches(String ifNoneMatch, String version) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String value = tag.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals("\"" + version + "\"") || value.equals("\"" + version + "-gzip\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (accept == null) {
+            return false;
+        }
+        for (String coding : accept.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static class CachedResponse {
+        private final String contentType;
+        private final Map<String, String> headers;
+        private final byte[] identity;
+        private final byte[] gzipped;
+
+        private CachedResponse(String contentType, Map<String, String> headers, byte[] identity, byte[] gzipped) {
+            this.contentType = contentType;
+            this.headers = headers;
+            this.identity = identity;
+            this.gzipped = gzipped;
+        }
+
+        private static CachedResponse of(ContentCachingResponseWrapper wrapper, Set<String> headersBefore)
+                throws IOException {
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (String name : wrapper.getHeaderNames()) {
+                if (!headersBefore.contains(name) && !UNCACHED_HEADERS.contains(name)
+                        && !name.equalsIgnoreCase(HttpHeaders.CONTENT_TYPE)) {
+                    headers.put(name, wrapper.getHeader(name));
+                }
+            }
+
+            byte[] identity = wrapper.getContentAsByteArray();
+            byte[] gzipped = null;
+            if (identity.length >= MIN_GZIP_SIZE) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(identity.length / 4);
+                try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+                    out.write(identity);
+                }
+                gzipped = buffer.toByteArray();
+            }
+            return new CachedResponse(wrapper.getContentType(), headers, identity, gzipped);
+        }
+
+        private void write(HttpServletResponse response, boolean acceptsGzip) throws IOException {
+            byte[] body = acceptsGzip && gzipped != null ? gzipped : identity;
+            response.setStatus(HttpServletResponse.SC_OK);
+            if (contentType != null) {
+                response.setContentType(contentType);
+            }
+            headers.forEach(response::setHeader);
+            if (body == gzipped) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+
+        private int weight() {
+            return identity.length + (gzipped == null ? 0 : gzipped.length);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.pharmacy.management.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pharmacy.management.exception.ErrorResponse;
+import com.pharmacy.management.service.IdempotencyStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.Set;
+
+/**
+ * Makes POST /api/orders, /api/orders/intake and /api/payments/process safe to retry. A request carrying an
+ * Idempotency-Key runs once per user and key; repeats get the stored response back with
+ * Idempotent-Replayed: true, and a key sent again with a different body is refused with 422. A new key is
+ * refused with 503 while the store of responses is full, rather than run without a way to replay it.
+ * Runs after Spring Security, so keys are scoped to the authenticated user.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Set<String> PATHS = Set.of("/api/orders", "/api/orders/intake", "/api/payments/process");
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String STORE_FULL_RETRY_AFTER_SECONDS = "60";
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyFilter(IdempotencyStore idempotencyStore, ObjectMapper objectMapper) {
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !PATHS.contains(request.getRequestURI())
+                || request.getHeader(KEY_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            // Rejected further on; there is no user to scope the key to
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = request.getHeader(KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(request, response, HttpServletResponse.SC_BAD_REQUEST, "Invalid request",
+                    KEY_HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        byte[] body = request.getInputStream().readAllBytes();
+        byte[] fingerprint = fingerprint(request, body);
+        HttpServletRequest replayableRequest = new CachedBodyRequest(request, body);
+
+        IdempotencyStore.Result result;
+        try {
+            result = idempotencyStore.execute(authentication.getName() + " " + key, fingerprint, () -> {
+                try {
+                    ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+                    filterChain.doFilter(replayableRequest, wrapper);
+                    IdempotencyStore.StoredResponse stored = new IdempotencyStore.StoredResponse(fingerprint,
+                            wrapper.getStatus(), wrapper.getContentType(), wrapper.getContentAsByteArray());
+                    wrapper.copyBodyToResponse();
+                    return stored;
+                } catch (IOException | ServletException e) {
+                    throw new ChainException(e);
+                }
+            });
+        } catch (ChainException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw (ServletException) e.getCause();
+        }
+
+        switch (result.getOutcome()) {
+            case EXECUTED -> {
+                // The response was written by the chain
+            }
+            case REPLAYED -> {
+                IdempotencyStore.StoredResponse stored = result.getResponse();
+                response.setStatus(stored.getStatus());
+                if (stored.getContentType() != null) {
+                    response.setContentType(stored.getContentType());
+                }
+                response.setHeader(REPLAYED_HEADER, "true");
+                response.setContentLength(stored.getBody().length);
+                response.getOutputStream().write(stored.getBody());
+            }
+            case KEY_REUSED -> writeError(request, response, 422, "Idempotency key reused",
+                    KEY_HEADER + " " + key + " was already used for a different request");
+            case STORE_FULL -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, STORE_FULL_RETRY_AFTER_SECONDS);
+                writeError(request, response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Service busy",
+                        "Too many recent " + KEY_HEADER + " requests are stored for replay; retry later");
+            }
+        }
+    }
+
+    private void writeError(HttpServletRequest request, HttpServletResponse response, int status, String error,
+                            String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse(new Date(), status, error, message, "uri=" + request.getRequestURI()));
+    }
+
+    /**
+     * SHA-256 over method, path and body, so a key can only be replayed for the same request
+     */
+    private static byte[] fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "\n").getBytes(StandardCharsets.UTF_8));
+            return digest.digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class ChainException extends RuntimeException {
+        private ChainException(Exception cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * The request with its body already read, so the body can be hashed and still reach the controller
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
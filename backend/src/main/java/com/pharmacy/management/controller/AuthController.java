@@ -1,24 +1,34 @@
 package com.pharmacy.management.controller;
 
 import com.pharmacy.management.model.User;
+import com.pharmacy.management.service.RefreshTokenService;
 import com.pharmacy.management.service.UserService;
-import com.pharmacy.management.security.JwtUtils;
+import com.pharmacy.management.security.AuthenticatedUser;
+import com.pharmacy.management.security.LoginThrottle;
+import com.pharmacy.management.security.PasswordHashingPool;
+import com.pharmacy.management.security.VerifiedTokenCache;
 import com.pharmacy.management.payload.JwtResponse;
 import com.pharmacy.management.payload.LoginRequest;
+import com.pharmacy.management.payload.LoginStatsResponse;
 import com.pharmacy.management.payload.MessageResponse;
+import com.pharmacy.management.payload.RefreshTokenRequest;
 import com.pharmacy.management.payload.SignupRequest;
+import com.pharmacy.management.payload.TokenCacheStatsResponse;
 import com.pharmacy.management.repository.UserRepository;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/auth")
@@ -26,52 +36,113 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final UserService userService;
-    private final JwtUtils jwtUtils;
     private final UserRepository userRepository;
+    private final VerifiedTokenCache tokenCache;
+    private final PasswordHashingPool passwordHashingPool;
+    private final LoginThrottle loginThrottle;
+    private final RefreshTokenService refreshTokenService;
 
+    /**
+     * Sign in. Throttled per client address and per account; the password check runs on the
+     * password hashing pool, and the request thread is released while it waits.
+     */
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtils.generateJwtToken(authentication);
-        
-        // Get username from the authentication principal
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String email = userDetails.getUsername();
-        
-        // Fetch the full user entity from the repository
-        User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
-
-        return ResponseEntity.ok(new JwtResponse(
-            jwt,
-            user.getId(),
-            user.getName(),
-            user.getEmail(),
-            user.getRole().toString()));
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                                                 HttpServletRequest request) {
+        loginThrottle.acquire(request.getRemoteAddr(), loginRequest.getEmail());
+
+        return passwordHashingPool.submit(() -> {
+            Authentication authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
+
+            // Get username from the authentication principal
+            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+            String email = userDetails.getUsername();
+
+            // Fetch the full user entity from the repository
+            User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
+
+            return ResponseEntity.ok(toJwtResponse(refreshTokenService.issue(user)));
+        });
     }
 
-    @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signupRequest) {
-        if (userService.existsByEmail(signupRequest.getEmail())) {
-            return ResponseEntity
-                .badRequest()
-                .body(new MessageResponse("Error: Email is already in use!"));
+    /**
+     * Exchange a refresh token for a new access token and refresh token; the one presented cannot be used again
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtResponse> refreshToken(@Valid @RequestBody RefreshTokenRequest refreshRequest) {
+        return ResponseEntity.ok(toJwtResponse(refreshTokenService.rotate(refreshRequest.getRefreshToken())));
+    }
+
+    /**
+     * Sign out: revoke the access token the request carries and the sign-in of the refresh token, if given
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<MessageResponse> logout(@RequestBody(required = false) RefreshTokenRequest logoutRequest,
+                                                  Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            refreshTokenService.revokeAccessToken(user.getTokenId());
+        }
+        if (logoutRequest != null && logoutRequest.getRefreshToken() != null) {
+            refreshTokenService.revoke(logoutRequest.getRefreshToken());
         }
+        return ResponseEntity.ok(new MessageResponse("Signed out"));
+    }
 
-        // Create new user's account
-        User user = new User();
-        user.setName(signupRequest.getName());
-        user.setEmail(signupRequest.getEmail());
-        user.setPassword(signupRequest.getPassword());
-        user.setContactNumber(signupRequest.getContactNumber());
-        user.setAddress(signupRequest.getAddress());
-        user.setRole(User.Role.CUSTOMER); // Default role for signup
+    /**
+     * Sign up. Throttled like sign-in; the password is hashed on the password hashing pool.
+     */
+    @PostMapping("/register")
+    public CompletableFuture<ResponseEntity<?>> registerUser(@Valid @RequestBody SignupRequest signupRequest,
+                                                             HttpServletRequest request) {
+        loginThrottle.acquire(request.getRemoteAddr(), signupRequest.getEmail());
+
+        return passwordHashingPool.submit(() -> {
+            if (userService.existsByEmail(signupRequest.getEmail())) {
+                return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Email is already in use!"));
+            }
+
+            // Create new user's account
+            User user = new User();
+            user.setName(signupRequest.getName());
+            user.setEmail(signupRequest.getEmail());
+            user.setPassword(signupRequest.getPassword());
+            user.setContactNumber(signupRequest.getContactNumber());
+            user.setAddress(signupRequest.getAddress());
+            user.setRole(User.Role.CUSTOMER); // Default role for signup
+
+            userService.createUser(user);
+
+            return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
+        });
+    }
 
-        userService.createUser(user);
+    @GetMapping("/login-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<LoginStatsResponse> getLoginStats() {
+        return ResponseEntity.ok(new LoginStatsResponse(
+            passwordHashingPool.getStats(),
+            loginThrottle.getThrottledByIp(),
+            loginThrottle.getThrottledByAccount()));
+    }
+
+    private static JwtResponse toJwtResponse(RefreshTokenService.IssuedTokens tokens) {
+        User user = tokens.getUser();
+        return new JwtResponse(
+            tokens.getAccessToken(),
+            tokens.getRefreshToken(),
+            user.getId(),
+            user.getName(),
+            user.getEmail(),
+            user.getRole().toString());
+    }
 
-        return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
+    @GetMapping("/token-cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TokenCacheStatsResponse> getTokenCacheStats() {
+        return ResponseEntity.ok(tokenCache.getStats());
     }
-} 
\ No newline at end of file
+}
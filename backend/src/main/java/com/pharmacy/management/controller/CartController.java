@@ -29,11 +29,17 @@ public class CartController {
         List<Map<String, Object>> cartItems = new ArrayList<>();
         BigDecimal totalPrice = BigDecimal.ZERO;
         
+        Map<Long, Product> products = productService.getProductsByIds(cart.keySet());
+        
         for (Map.Entry<Long, Integer> entry : cart.entrySet()) {
             Long productId = entry.getKey();
             Integer quantity = entry.getValue();
             
-            Product product = productService.getProductById(productId);
+            Product product = products.get(productId);
+            if (product == null) {
+                // Product was removed from the catalog since it was added to the cart
+                continue;
+            }
             BigDecimal itemTotal = product.getPrice().multiply(BigDecimal.valueOf(quantity));
             
             Map<String, Object> cartItem = new HashMap<>();
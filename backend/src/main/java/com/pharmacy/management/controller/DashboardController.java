@@ -21,43 +21,49 @@ public class DashboardController {
 
     @GetMapping("/prescriptions/pending")
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
-    public ResponseEntity<List<Prescription>> getPendingPrescriptions() {
-        List<Prescription> pendingPrescriptions = prescriptionService.getPrescriptionsByVerificationStatus(false);
-        return ResponseEntity.ok(pendingPrescriptions);
+    public ResponseEntity<List<Prescription>> getPendingPrescriptions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return KeysetResponses.ok(prescriptionService.getPrescriptionsByVerificationStatus(false, cursor, limit));
     }
 
     @GetMapping("/prescriptions/verified")
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
-    public ResponseEntity<List<Prescription>> getVerifiedPrescriptions() {
-        List<Prescription> verifiedPrescriptions = prescriptionService.getPrescriptionsByVerificationStatus(true);
-        return ResponseEntity.ok(verifiedPrescriptions);
+    public ResponseEntity<List<Prescription>> getVerifiedPrescriptions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return KeysetResponses.ok(prescriptionService.getPrescriptionsByVerificationStatus(true, cursor, limit));
     }
 
     @GetMapping("/orders/pending")
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
-    public ResponseEntity<List<Order>> getPendingOrders() {
-        List<Order> pendingOrders = orderService.getOrdersByStatus(Order.OrderStatus.PENDING);
-        return ResponseEntity.ok(pendingOrders);
+    public ResponseEntity<List<Order>> getPendingOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return KeysetResponses.ok(orderService.getOrdersByStatus(Order.OrderStatus.PENDING, cursor, limit));
     }
 
     @GetMapping("/orders/confirmed")
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
-    public ResponseEntity<List<Order>> getConfirmedOrders() {
-        List<Order> confirmedOrders = orderService.getOrdersByStatus(Order.OrderStatus.CONFIRMED);
-        return ResponseEntity.ok(confirmedOrders);
+    public ResponseEntity<List<Order>> getConfirmedOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return KeysetResponses.ok(orderService.getOrdersByStatus(Order.OrderStatus.CONFIRMED, cursor, limit));
     }
 
     @GetMapping("/orders/preparing")
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
-    public ResponseEntity<List<Order>> getPreparingOrders() {
-        List<Order> preparingOrders = orderService.getOrdersByStatus(Order.OrderStatus.PREPARING);
-        return ResponseEntity.ok(preparingOrders);
+    public ResponseEntity<List<Order>> getPreparingOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return KeysetResponses.ok(orderService.getOrdersByStatus(Order.OrderStatus.PREPARING, cursor, limit));
     }
 
     @GetMapping("/orders/shipped")
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
-    public ResponseEntity<List<Order>> getShippedOrders() {
-        List<Order> shippedOrders = orderService.getOrdersByStatus(Order.OrderStatus.SHIPPED);
-        return ResponseEntity.ok(shippedOrders);
+    public ResponseEntity<List<Order>> getShippedOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return KeysetResponses.ok(orderService.getOrdersByStatus(Order.OrderStatus.SHIPPED, cursor, limit));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.pharmacy.management.controller;
+
+import com.pharmacy.management.service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Writes an export straight to the response as an attachment, once the request has been checked
+ */
+final class ExportResponses {
+
+    private ExportResponses() {
+    }
+
+    static void write(ExportService exportService, ExportService.Dataset dataset, LocalDate from, LocalDate to,
+                      String format, HttpServletResponse response) throws IOException {
+        ExportService.Format exportFormat = ExportService.Format.fromName(format);
+        exportService.validateRange(from, to);
+
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + dataset.getName()
+                + (from != null ? "-from-" + from : "") + (to != null ? "-to-" + to : "")
+                + "." + exportFormat.getExtension() + "\"");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        exportService.export(dataset, from, to, exportFormat, response.getOutputStream());
+    }
+}
@@ -0,0 +1,25 @@
+package com.pharmacy.management.controller;
+
+import com.pharmacy.management.payload.KeysetPage;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Admin lists keep answering with a plain array; the cursor of the next page, if any, goes in X-Next-Cursor
+ */
+final class KeysetResponses {
+
+    static final String NEXT_CURSOR = "X-Next-Cursor";
+
+    private KeysetResponses() {
+    }
+
+    static <T> ResponseEntity<List<T>> ok(KeysetPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+}
@@ -3,12 +3,18 @@ package com.pharmacy.management.controller;
 import com.pharmacy.management.model.Order;
 import com.pharmacy.management.model.User;
 import com.pharmacy.management.payload.ErrorResponse;
+import com.pharmacy.management.payload.OrderIntakeResponse;
 import com.pharmacy.management.payload.OrderRequest;
 import com.pharmacy.management.payload.StatusUpdateRequest;
+import com.pharmacy.management.service.ExportService;
+import com.pharmacy.management.service.OrderIntakeService;
 import com.pharmacy.management.service.OrderService;
 import com.pharmacy.management.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -16,6 +22,9 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import java.io.IOException;
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -25,6 +34,8 @@ public class OrderController {
 
     private final OrderService orderService;
     private final UserService userService;
+    private final ExportService exportService;
+    private final OrderIntakeService orderIntakeService;
 
     /**
      * Create a new order
@@ -39,14 +50,67 @@ public class OrderController {
         return new ResponseEntity<>(orderService.createOrder(orderRequest, user), HttpStatus.CREATED);
     }
 
+    /**
+     * Queue an order instead of placing it while the request waits, for flash sales. Placing happens
+     * in the background; poll the Location returned for the outcome.
+     * @param orderRequest Order data from the client
+     * @param authentication Current authenticated user
+     * @return 202 with the tracking ID, or 503 when too many orders are already waiting
+     */
+    @PostMapping("/intake")
+    @PreAuthorize("hasRole('CUSTOMER')")
+    public ResponseEntity<OrderIntakeResponse> submitOrder(@Valid @RequestBody OrderRequest orderRequest,
+                                                           Authentication authentication) {
+        User user = userService.getUserByEmail(authentication.getName());
+        OrderIntakeResponse queued = orderIntakeService.submit(orderRequest, user);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/orders/intake/" + queued.getTrackingId()))
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(queued);
+    }
+
+    /**
+     * Outcome of a queued order: QUEUED, ACCEPTED with the order ID, or REJECTED with the reason.
+     * Kept for app.orderIntake.resultTtl after the order was queued.
+     * @param trackingId ID returned when the order was queued
+     * @param authentication Current authenticated user
+     * @return Tracking state of the order
+     */
+    @GetMapping("/intake/{trackingId}")
+    public ResponseEntity<OrderIntakeResponse> getQueuedOrder(@PathVariable String trackingId,
+                                                              Authentication authentication) {
+        User user = userService.getUserByEmail(authentication.getName());
+        return ResponseEntity.ok(orderIntakeService.getStatus(trackingId, user));
+    }
+
     /**
      * Get all orders - for admins and pharmacists
-     * @return List of all orders
+     * @param cursor X-Next-Cursor of the previous page, omitted for the first page
+     * @param limit Page size
+     * @return A page of orders, newest first; the cursor of the next page is in X-Next-Cursor
      */
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
-    public ResponseEntity<List<Order>> getAllOrders() {
-        return ResponseEntity.ok(orderService.getAllOrders());
+    public ResponseEntity<List<Order>> getAllOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return KeysetResponses.ok(orderService.getAllOrders(cursor, limit));
+    }
+
+    /**
+     * Stream all orders placed in a date range, oldest first, without loading them all into memory
+     * @param from First day included, omitted for no lower bound
+     * @param to Last day included, omitted for no upper bound
+     * @param format ndjson (one JSON object per line) or csv
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
+    public void exportOrders(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        ExportResponses.write(exportService, ExportService.Dataset.ORDERS, from, to, format, response);
     }
 
     /**
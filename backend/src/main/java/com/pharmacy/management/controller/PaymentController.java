@@ -3,14 +3,19 @@ package com.pharmacy.management.controller;
 import com.pharmacy.management.model.Payment;
 import com.pharmacy.management.payload.PaymentRequest;
 import com.pharmacy.management.payload.PaymentStatusRequest;
+import com.pharmacy.management.service.ExportService;
 import com.pharmacy.management.service.PaymentService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -19,11 +24,30 @@ import java.util.List;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final ExportService exportService;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
-    public ResponseEntity<List<Payment>> getAllPayments() {
-        return ResponseEntity.ok(paymentService.getAllPayments());
+    public ResponseEntity<List<Payment>> getAllPayments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return KeysetResponses.ok(paymentService.getAllPayments(cursor, limit));
+    }
+
+    /**
+     * Stream all payments made in a date range, oldest first, without loading them all into memory
+     * @param from First day included, omitted for no lower bound
+     * @param to Last day included, omitted for no upper bound
+     * @param format ndjson (one JSON object per line) or csv
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
+    public void exportPayments(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        ExportResponses.write(exportService, ExportService.Dataset.PAYMENTS, from, to, format, response);
     }
 
     @GetMapping("/{id}")
@@ -4,9 +4,12 @@ import com.pharmacy.management.model.Prescription;
 import com.pharmacy.management.model.User;
 import com.pharmacy.management.payload.MessageResponse;
 import com.pharmacy.management.repository.UserRepository;
+import com.pharmacy.management.service.ExportService;
 import com.pharmacy.management.service.PrescriptionService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -20,6 +23,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -29,6 +33,7 @@ public class PrescriptionController {
 
     private final PrescriptionService prescriptionService;
     private final UserRepository userRepository;
+    private final ExportService exportService;
 
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -131,7 +136,25 @@ public class PrescriptionController {
     // Endpoint for admins/pharmacists to get all prescriptions
     @GetMapping("/all")
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
-    public ResponseEntity<List<Prescription>> getAllPrescriptionsForAdmin() {
-        return ResponseEntity.ok(prescriptionService.getAllPrescriptions());
+    public ResponseEntity<List<Prescription>> getAllPrescriptionsForAdmin(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return KeysetResponses.ok(prescriptionService.getAllPrescriptions(cursor, limit));
+    }
+
+    /**
+     * Stream all prescriptions uploaded in a date range, oldest first, without loading them all into memory
+     * @param from First day included, omitted for no lower bound
+     * @param to Last day included, omitted for no upper bound
+     * @param format ndjson (one JSON object per line) or csv
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
+    public void exportPrescriptions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        ExportResponses.write(exportService, ExportService.Dataset.PRESCRIPTIONS, from, to, format, response);
     }
 } 
\ No newline at end of file
@@ -1,14 +1,32 @@
 package com.pharmacy.management.controller;
 
 import com.pharmacy.management.model.Product;
+import com.pharmacy.management.payload.CacheStatsResponse;
+import com.pharmacy.management.payload.CatalogPageResponse;
+import com.pharmacy.management.payload.CatalogQueryRequest;
+import com.pharmacy.management.payload.FacetCountsResponse;
+import com.pharmacy.management.payload.ProductBatchResponse;
+import com.pharmacy.management.payload.ProductImportReport;
+import com.pharmacy.management.payload.ProductPatchRequest;
+import com.pharmacy.management.payload.ProductPatchResponse;
+import com.pharmacy.management.payload.ProductSummary;
+import com.pharmacy.management.payload.SuggestionResponse;
+import com.pharmacy.management.service.ProductImportService;
 import com.pharmacy.management.service.ProductService;
+import com.pharmacy.management.service.ProductSuggester;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -17,9 +35,10 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
 
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
+    public ResponseEntity<List<ProductSummary>> getAllProducts() {
         return ResponseEntity.ok(productService.getAllProducts());
     }
 
@@ -28,34 +47,129 @@ public class ProductController {
         return ResponseEntity.ok(productService.getProductById(id));
     }
 
+    /**
+     * Several products in one call, for carts and POS terminals that would otherwise fetch them one by one
+     * @param ids Comma-separated or repeated product IDs, at most ProductService.MAX_BATCH_SIZE distinct
+     * @return Products in request order, with IDs that do not exist flagged as not found
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<ProductBatchResponse> getProductBatch(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(productService.getProductBatch(ids));
+    }
+
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category) {
+    public ResponseEntity<List<ProductSummary>> getProductsByCategory(@PathVariable String category) {
         return ResponseEntity.ok(productService.getProductsByCategory(category));
     }
 
+    /**
+     * Catalog query combining any of category (repeatable), requiresPrescription, inStock, minPrice, maxPrice
+     * and q (text, with fuzzy), ordered by sort (name, price_asc, price_desc or newest)
+     * @param query Filters, sort, cursor from the previous page and limit
+     * @return The page of products, nextCursor when more follow, and the total number of matches
+     */
+    @GetMapping("/catalog")
+    public ResponseEntity<CatalogPageResponse> queryCatalog(CatalogQueryRequest query) {
+        query.setLimit(Math.min(Math.max(query.getLimit(), 1), 200));
+        return ResponseEntity.ok(productService.queryCatalog(query));
+    }
+
+    /**
+     * Match counts per category, prescription flag, stock state and price bucket, taking the same filters
+     * as /catalog; each facet is counted as if its own filter were not set
+     * @param query Active filters
+     * @return Total matches and counts per facet value
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<FacetCountsResponse> getCatalogFacets(CatalogQueryRequest query) {
+        return ResponseEntity.ok(productService.getCatalogFacets(query));
+    }
+
+    /**
+     * Full-text search over name, category and description
+     * @param name Search text
+     * @param fuzzy Also match misspelt product names; typo matches rank after exact and prefix matches
+     * @param page Zero-based page number
+     * @param size Page size, 50 by default and at most 200
+     * @return Matching products for the page, best match first; the total is in X-Total-Count.
+     * Without page and size every match is returned, as before paging was added.
+     */
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String name) {
-        return ResponseEntity.ok(productService.searchProductsByName(name));
+    public ResponseEntity<List<Product>> searchProducts(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        Pageable pageable = page == null && size == null
+                ? PageRequest.of(0, Integer.MAX_VALUE)
+                : PageRequest.of(Math.max(page == null ? 0 : page, 0), Math.min(Math.max(size == null ? 50 : size, 1), 200));
+        Page<Product> results = productService.searchProducts(name, fuzzy, pageable);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(results.getTotalElements()))
+                .body(results.getContent());
+    }
+
+    /**
+     * Type-ahead completions for product names and categories, served from memory
+     * @param prefix Text typed so far
+     * @param limit Maximum number of completions
+     * @return Completions, most ordered first
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggestProducts(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(productService.suggestProducts(prefix,
+                Math.min(Math.max(limit, 1), ProductSuggester.MAX_SUGGESTIONS)));
     }
 
     @GetMapping("/prescription")
-    public ResponseEntity<List<Product>> getProductsByPrescriptionRequirement(
+    public ResponseEntity<List<ProductSummary>> getProductsByPrescriptionRequirement(
             @RequestParam(defaultValue = "true") Boolean requiresPrescription) {
         return ResponseEntity.ok(productService.getProductsByPrescriptionRequirement(requiresPrescription));
     }
 
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CacheStatsResponse> getCacheStats() {
+        return ResponseEntity.ok(productService.getCacheStats());
+    }
+
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
     public ResponseEntity<Product> createProduct(@Valid @RequestBody Product product) {
         return new ResponseEntity<>(productService.createProduct(product), HttpStatus.CREATED);
     }
 
+    /**
+     * Bulk upsert streamed from the request body, as CSV with a header row (text/csv) or
+     * one JSON object per line (application/x-ndjson)
+     * @return Counts of rows read, products inserted and updated, and failed rows with their line numbers
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson", "application/jsonl"})
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
+    public ResponseEntity<ProductImportReport> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) throws IOException {
+        return ResponseEntity.ok(productImportService.importProducts(body,
+                ProductImportService.Format.fromContentType(contentType)));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
     public ResponseEntity<Product> updateProduct(@PathVariable Long id, @Valid @RequestBody Product product) {
         return ResponseEntity.ok(productService.updateProduct(id, product));
     }
 
+    /**
+     * Reprice, restock or reflag up to ProductPatchRequest.MAX_UPDATES products at once; fields left out are not changed
+     * @return Number of products updated and the IDs that matched no product
+     */
+    @PatchMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
+    public ResponseEntity<ProductPatchResponse> patchProducts(@Valid @RequestBody ProductPatchRequest request) {
+        return ResponseEntity.ok(productService.patchProducts(request.getUpdates()));
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
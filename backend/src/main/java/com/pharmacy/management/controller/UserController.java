@@ -1,6 +1,7 @@
 package com.pharmacy.management.controller;
 
 import com.pharmacy.management.model.User;
+import com.pharmacy.management.payload.UserSummary;
 import com.pharmacy.management.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -20,8 +21,10 @@ public class UserController {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<List<UserSummary>> getAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return KeysetResponses.ok(userService.getAllUsers(cursor, limit));
     }
 
     @GetMapping("/{id}")
@@ -1,8 +1,12 @@
 package com.pharmacy.management.controller;
 
 import com.pharmacy.management.model.Product;
+import com.pharmacy.management.payload.CatalogQueryRequest;
+import com.pharmacy.management.payload.ProductSummary;
 import com.pharmacy.management.service.ProductService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -24,22 +28,32 @@ public class WebController {
 
     @GetMapping("/products")
     public String getAllProducts(Model model) {
-        List<Product> products = productService.getAllProducts();
+        List<ProductSummary> products = productService.getAllProducts();
         model.addAttribute("products", products);
+        model.addAttribute("facets", productService.getCatalogFacets(new CatalogQueryRequest()));
         return "products";
     }
 
     @GetMapping("/products/category/{category}")
     public String getProductsByCategory(@PathVariable String category, Model model) {
-        List<Product> products = productService.getProductsByCategory(category);
+        List<ProductSummary> products = productService.getProductsByCategory(category);
         model.addAttribute("products", products);
+        model.addAttribute("facets", productService.getCatalogFacets(new CatalogQueryRequest()));
+        model.addAttribute("activeCategory", category);
         return "products";
     }
 
     @GetMapping("/products/search")
-    public String searchProducts(@RequestParam String name, Model model) {
-        List<Product> products = productService.searchProductsByName(name);
-        model.addAttribute("products", products);
+    public String searchProducts(@RequestParam String name,
+                                 @RequestParam(defaultValue = "true") boolean fuzzy,
+                                 @RequestParam(defaultValue = "0") int page,
+                                 @RequestParam(defaultValue = "24") int size,
+                                 Model model) {
+        Page<Product> results = productService.searchProducts(name, fuzzy,
+                PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 200)));
+        model.addAttribute("products", results.map(ProductSummary::of).getContent());
+        model.addAttribute("page", results);
+        model.addAttribute("facets", productService.getCatalogFacets(new CatalogQueryRequest()));
         return "products";
     }
 
@@ -78,7 +92,7 @@ public class WebController {
     // Admin routes
     @GetMapping("/admin/products")
     public String adminProducts(Model model) {
-        List<Product> products = productService.getAllProducts();
+        List<ProductSummary> products = productService.getAllProducts();
         model.addAttribute("products", products);
         return "admin/products";
     }
@@ -0,0 +1,11 @@
+package com.pharmacy.management.exception;
+
+/**
+ * A token presented to extend or end a sign-in is unknown, expired, revoked or reused; answered with 401
+ */
+public class InvalidTokenException extends RuntimeException {
+
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
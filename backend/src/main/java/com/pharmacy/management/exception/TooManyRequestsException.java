@@ -0,0 +1,18 @@
+package com.pharmacy.management.exception;
+
+/**
+ * A caller is sending more than it is allowed to, or more than can be admitted right now; answered with 429
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
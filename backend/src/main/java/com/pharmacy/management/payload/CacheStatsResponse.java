@@ -0,0 +1,17 @@
+package com.pharmacy.management.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class CacheStatsResponse {
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long productEntries;
+    private long listEntries;
+    private Map<String, CoalescedLoadStats> coalescedLoads;
+}
\ No newline at end of file
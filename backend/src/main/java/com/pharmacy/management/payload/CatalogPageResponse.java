@@ -0,0 +1,15 @@
+package com.pharmacy.management.payload;
+
+import com.pharmacy.management.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CatalogPageResponse {
+    private List<Product> items;
+    private String nextCursor;
+    private long total;
+}
@@ -0,0 +1,23 @@
+package com.pharmacy.management.payload;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Filters, ordering and position for a catalog query; every filter left null is not applied
+ */
+@Data
+public class CatalogQueryRequest {
+    private List<String> category;
+    private Boolean requiresPrescription;
+    private Boolean inStock;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private String q;
+    private boolean fuzzy;
+    private String sort = "name";
+    private String cursor;
+    private int limit = 50;
+}
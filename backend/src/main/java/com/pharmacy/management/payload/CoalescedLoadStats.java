@@ -0,0 +1,11 @@
+package com.pharmacy.management.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CoalescedLoadStats {
+    private long loads;
+    private long collapsed;
+}
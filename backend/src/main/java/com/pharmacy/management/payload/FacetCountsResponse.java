@@ -0,0 +1,26 @@
+package com.pharmacy.management.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class FacetCountsResponse {
+    private long total;
+    private Map<String, Long> categories;
+    private Map<Boolean, Long> requiresPrescription;
+    private Map<Boolean, Long> inStock;
+    private List<PriceBucketCount> priceBuckets;
+
+    @Data
+    @AllArgsConstructor
+    public static class PriceBucketCount {
+        private BigDecimal min;
+        private BigDecimal max;
+        private long count;
+    }
+}
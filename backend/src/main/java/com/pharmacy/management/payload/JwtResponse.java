@@ -7,17 +7,19 @@ import lombok.Data;
 @AllArgsConstructor
 public class JwtResponse {
     private String token;
+    private String refreshToken;
     private String type = "Bearer";
     private Long id;
     private String name;
     private String email;
     private String role;
     
-    public JwtResponse(String token, Long id, String name, String email, String role) {
+    public JwtResponse(String token, String refreshToken, Long id, String name, String email, String role) {
         this.token = token;
+        this.refreshToken = refreshToken;
         this.id = id;
         this.name = name;
         this.email = email;
         this.role = role;
     }
-} 
\ No newline at end of file
+}  
\ No newline at end of file
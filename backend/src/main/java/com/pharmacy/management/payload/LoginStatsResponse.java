@@ -0,0 +1,13 @@
+package com.pharmacy.management.payload;
+
+import com.pharmacy.management.security.PasswordHashingPool;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class LoginStatsResponse {
+    private PasswordHashingPool.PasswordHashingStats hashing;
+    private long throttledByIp;
+    private long throttledByAccount;
+}
@@ -0,0 +1,23 @@
+package com.pharmacy.management.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Where a queued order stands; orderId is set once it is accepted, message once it is rejected
+ */
+@Data
+@AllArgsConstructor
+public class OrderIntakeResponse {
+
+    public enum Status {
+        QUEUED,
+        ACCEPTED,
+        REJECTED
+    }
+
+    private String trackingId;
+    private Status status;
+    private Long orderId;
+    private String message;
+}
@@ -1,5 +1,7 @@
 package com.pharmacy.management.payload;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
@@ -13,6 +15,7 @@ public class OrderRequest {
     private String shippingAddress;
     
     @NotEmpty
+    @Valid
     private List<OrderItemRequest> items;
     
     private Long prescriptionId;
@@ -23,6 +26,7 @@ public class OrderRequest {
         private Long productId;
         
         @NotNull
+        @Min(1)
         private Integer quantity;
     }
 } 
\ No newline at end of file
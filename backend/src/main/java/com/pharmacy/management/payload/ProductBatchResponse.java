@@ -0,0 +1,21 @@
+package com.pharmacy.management.payload;
+
+import com.pharmacy.management.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProductBatchResponse {
+    private List<Item> items;
+
+    @Data
+    @AllArgsConstructor
+    public static class Item {
+        private Long id;
+        private boolean found;
+        private Product product;
+    }
+}
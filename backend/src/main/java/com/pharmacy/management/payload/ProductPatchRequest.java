@@ -0,0 +1,40 @@
+package com.pharmacy.management.payload;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class ProductPatchRequest {
+
+    public static final int MAX_UPDATES = 10000;
+
+    @NotEmpty
+    @Size(max = MAX_UPDATES)
+    @Valid
+    private List<ProductPatch> updates;
+
+    /**
+     * Fields left null are not changed
+     */
+    @Data
+    public static class ProductPatch {
+        @NotNull
+        private Long id;
+
+        @Positive
+        private BigDecimal price;
+
+        @PositiveOrZero
+        private Integer stock;
+
+        private Boolean requiresPrescription;
+    }
+}
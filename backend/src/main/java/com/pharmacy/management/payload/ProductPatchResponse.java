@@ -0,0 +1,13 @@
+package com.pharmacy.management.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProductPatchResponse {
+    private int updated;
+    private List<Long> notFound;
+}
@@ -0,0 +1,36 @@
+package com.pharmacy.management.payload;
+
+import com.pharmacy.management.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * What product list views show: everything but the full description, of which only the
+ * first EXCERPT_LENGTH characters are read
+ */
+@Data
+@AllArgsConstructor
+public class ProductSummary {
+
+    // One past what list pages display, so they can still tell whether to add an ellipsis
+    public static final int EXCERPT_LENGTH = 101;
+
+    private Long id;
+    private String name;
+    private String category;
+    private BigDecimal price;
+    private Integer stock;
+    private String imageUrl;
+    private Boolean requiresPrescription;
+    private String excerpt;
+
+    public static ProductSummary of(Product product) {
+        String description = product.getDescription();
+        return new ProductSummary(product.getId(), product.getName(), product.getCategory(), product.getPrice(),
+                product.getStock(), product.getImageUrl(), product.getRequiresPrescription(),
+                description == null || description.length() <= EXCERPT_LENGTH
+                        ? description : description.substring(0, EXCERPT_LENGTH));
+    }
+}
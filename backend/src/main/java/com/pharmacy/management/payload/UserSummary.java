@@ -0,0 +1,20 @@
+package com.pharmacy.management.payload;
+
+import com.pharmacy.management.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * What the user list shows: the account without its orders, which are fetched per user when needed
+ */
+@Data
+@AllArgsConstructor
+public class UserSummary {
+
+    private Long id;
+    private String name;
+    private String email;
+    private String contactNumber;
+    private String address;
+    private User.Role role;
+}
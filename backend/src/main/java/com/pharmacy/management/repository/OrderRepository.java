@@ -2,14 +2,56 @@ package com.pharmacy.management.repository;
 
 import com.pharmacy.management.model.Order;
 import com.pharmacy.management.model.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUser(User user);
+
+    // Ownership check by primary key; the order itself is not loaded
+    boolean existsByIdAndUserId(Long id, Long userId);
+
+    // Order lists are serialized with their user, items and products, so those are fetched up front
+    @EntityGraph(Order.WITH_ITEMS)
     List<Order> findByStatus(Order.OrderStatus status);
+
+    @EntityGraph(Order.WITH_ITEMS)
     List<Order> findByUserOrderByOrderDateDesc(User user);
+
+    /**
+     * IDs of a page of orders, newest first
+     * @param after ID the page starts below
+     * @param limit Maximum number of IDs
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.id < :after ORDER BY o.id DESC")
+    List<Long> findPageIds(@Param("after") long after, Limit limit);
+
+    @Query("SELECT o.id FROM Order o WHERE o.status = :status AND o.id < :after ORDER BY o.id DESC")
+    List<Long> findPageIdsByStatus(@Param("status") Order.OrderStatus status, @Param("after") long after, Limit limit);
+
+    // Pages are chosen by ID first, as a limit on a query fetching the items collection would be applied in memory
+    @EntityGraph(Order.WITH_ITEMS)
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids ORDER BY o.id DESC")
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(Order.WITH_ITEMS)
+    Optional<Order> findWithItemsById(Long id);
+
+    /**
+     * Units ordered per product over all orders not in the given status
+     * @param excluded Status whose orders are left out, typically CANCELLED
+     * @return Rows of product ID and summed quantity
+     */
+    @Query("SELECT i.product.id, SUM(i.quantity) FROM OrderItem i " +
+            "WHERE i.order.status <> :excluded GROUP BY i.product.id")
+    List<Object[]> sumQuantityByProductExcludingStatus(@Param("excluded") Order.OrderStatus excluded);
 } 
\ No newline at end of file
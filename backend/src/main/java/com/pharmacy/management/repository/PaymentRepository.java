@@ -2,13 +2,25 @@ package com.pharmacy.management.repository;
 
 import com.pharmacy.management.model.Order;
 import com.pharmacy.management.model.Payment;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByOrder(Order order);
     Optional<Payment> findByTransactionId(String transactionId);
-} 
\ No newline at end of file
+
+    /**
+     * A page of payments with their orders and customers, newest first
+     * @param after ID the page starts below
+     * @param limit Maximum number of payments
+     */
+    @Query("SELECT p FROM Payment p JOIN FETCH p.order o JOIN FETCH o.user WHERE p.id < :after ORDER BY p.id DESC")
+    List<Payment> findPage(@Param("after") long after, Limit limit);
+} 
@@ -2,7 +2,10 @@ package com.pharmacy.management.repository;
 
 import com.pharmacy.management.model.Prescription;
 import com.pharmacy.management.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +16,17 @@ public interface PrescriptionRepository extends JpaRepository<Prescription, Long
     List<Prescription> findByUserOrderByUploadDateDesc(User user);
     List<Prescription> findByVerified(boolean verified);
     List<Prescription> findByRejected(boolean rejected);
-} 
\ No newline at end of file
+
+    /**
+     * A page of prescriptions with the users who uploaded and verified them, newest first
+     * @param after ID the page starts below
+     * @param limit Maximum number of prescriptions
+     */
+    @Query("SELECT p FROM Prescription p JOIN FETCH p.user LEFT JOIN FETCH p.verifiedBy " +
+            "WHERE p.id < :after ORDER BY p.id DESC")
+    List<Prescription> findPage(@Param("after") long after, Limit limit);
+
+    @Query("SELECT p FROM Prescription p JOIN FETCH p.user LEFT JOIN FETCH p.verifiedBy " +
+            "WHERE p.verified = :verified AND p.id < :after ORDER BY p.id DESC")
+    List<Prescription> findPageByVerified(@Param("verified") boolean verified, @Param("after") long after, Limit limit);
+} 
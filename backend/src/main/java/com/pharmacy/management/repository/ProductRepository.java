@@ -1,14 +1,37 @@
 package com.pharmacy.management.repository;
 
 import com.pharmacy.management.model.Product;
+import com.pharmacy.management.payload.ProductSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
-    List<Product> findByCategory(String category);
-    List<Product> findByNameContainingIgnoreCase(String name);
-    List<Product> findByRequiresPrescription(Boolean requiresPrescription);
-} 
\ No newline at end of file
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+    String SUMMARY = "SELECT new com.pharmacy.management.payload.ProductSummary(" +
+            "p.id, p.name, p.category, p.price, p.stock, p.imageUrl, p.requiresPrescription, " +
+            "SUBSTRING(p.description, 1, " + ProductSummary.EXCERPT_LENGTH + ")) FROM Product p ";
+
+    @Query(SUMMARY + "ORDER BY p.id")
+    List<ProductSummary> findAllSummaries();
+
+    @Query(SUMMARY + "WHERE p.category = :category ORDER BY p.id")
+    List<ProductSummary> findSummariesByCategory(@Param("category") String category);
+
+    @Query(SUMMARY + "WHERE p.requiresPrescription = :requiresPrescription ORDER BY p.id")
+    List<ProductSummary> findSummariesByRequiresPrescription(@Param("requiresPrescription") Boolean requiresPrescription);
+
+    /**
+     * Products as stored, built from the selected columns rather than taken from the persistence context.
+     * Listeners that run after commit still see the finished transaction's context, whose entities can be stale
+     * once stock was changed by a JDBC update; opening a new transaction instead would need a second connection.
+     */
+    @Query("SELECT new com.pharmacy.management.model.Product(p.id, p.name, p.description, p.category, p.price, " +
+            "p.stock, p.imageUrl, p.requiresPrescription) FROM Product p WHERE p.id IN :ids")
+    List<Product> findStoredByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,38 @@
+package com.pharmacy.management.repository;
+
+import com.pharmacy.management.payload.ProductPatchRequest;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Lock the rows of the given products in ID order until the transaction ends
+     * @param ids Product IDs; missing ones are skipped
+     */
+    void lockStock(Collection<Long> ids);
+
+    /**
+     * Decrement stock only where enough is left, sending every line as one JDBC batch in ID order
+     * @param quantities Quantity to take per product ID
+     * @return IDs of products whose guarded update matched no row (missing or short-stocked)
+     */
+    Set<Long> decrementStock(Map<Long, Integer> quantities);
+
+    /**
+     * Return stock to the given products, sending every line as one JDBC batch in ID order
+     * @param quantities Quantity to give back per product ID
+     */
+    void incrementStock(Map<Long, Integer> quantities);
+
+    /**
+     * Write only the fields each patch sets, batching patches that set the same fields into one statement.
+     * All patched rows are locked in ID order first, as {@link #lockStock} does for orders.
+     * @param patches Partial updates, at most one per product ID
+     * @return IDs that matched no product
+     */
+    Set<Long> patchProducts(List<ProductPatchRequest.ProductPatch> patches);
+}
\ No newline at end of file
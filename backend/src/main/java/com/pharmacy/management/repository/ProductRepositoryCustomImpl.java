@@ -0,0 +1,132 @@
+package com.pharmacy.management.repository;
+
+import com.pharmacy.management.payload.ProductPatchRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE products SET stock = stock - ? WHERE id = ? AND stock >= ?";
+
+    private static final String INCREMENT_STOCK_SQL =
+            "UPDATE products SET stock = stock + ? WHERE id = ?";
+
+    private static final int PATCH_BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void lockStock(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Long> sorted = new ArrayList<>(new TreeSet<>(ids));
+        String placeholders = String.join(", ", Collections.nCopies(sorted.size(), "?"));
+        jdbcTemplate.queryForList("SELECT id FROM products WHERE id IN (" + placeholders + ") ORDER BY id FOR UPDATE",
+                Long.class, sorted.toArray());
+    }
+
+    @Override
+    public Set<Long> decrementStock(Map<Long, Integer> quantities) {
+        // Rows are updated in ID order, so transactions taking stock for overlapping products
+        // lock them in the same order and cannot deadlock
+        List<Long> ids = new ArrayList<>(new TreeSet<>(quantities.keySet()));
+        List<Object[]> batchArgs = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Integer quantity = quantities.get(id);
+            batchArgs.add(new Object[]{quantity, id, quantity});
+        }
+
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, batchArgs);
+
+        Set<Long> rejected = new HashSet<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                rejected.add(ids.get(i));
+            }
+        }
+        return rejected;
+    }
+
+    @Override
+    public void incrementStock(Map<Long, Integer> quantities) {
+        // ID order, like decrementStock, so returns and reservations of overlapping products cannot deadlock
+        List<Object[]> batchArgs = new ArrayList<>(quantities.size());
+        for (Long id : new TreeSet<>(quantities.keySet())) {
+            batchArgs.add(new Object[]{quantities.get(id), id});
+        }
+        jdbcTemplate.batchUpdate(INCREMENT_STOCK_SQL, batchArgs);
+    }
+
+    @Override
+    public Set<Long> patchProducts(List<ProductPatchRequest.ProductPatch> patches) {
+        // The groups below touch rows out of ID order, so lock every patched row in ID order first;
+        // a patch then cannot deadlock against orders, which take the same locks in the same order
+        lockStock(patches.stream().map(ProductPatchRequest.ProductPatch::getId).toList());
+
+        // One statement shape per combination of fields set, so each shape batches on its own
+        Map<List<String>, List<ProductPatchRequest.ProductPatch>> byColumns = new LinkedHashMap<>();
+        List<ProductPatchRequest.ProductPatch> sorted = new ArrayList<>(patches);
+        sorted.sort(Comparator.comparing(ProductPatchRequest.ProductPatch::getId));
+        for (ProductPatchRequest.ProductPatch patch : sorted) {
+            byColumns.computeIfAbsent(columns(patch), k -> new ArrayList<>()).add(patch);
+        }
+
+        Set<Long> missing = new HashSet<>();
+        byColumns.forEach((columns, group) -> {
+            String sql = "UPDATE products SET " +
+                    columns.stream().map(column -> column + " = ?").collect(Collectors.joining(", ")) +
+                    " WHERE id = ?";
+            int[][] updated = jdbcTemplate.batchUpdate(sql, group, PATCH_BATCH_SIZE, (ps, patch) -> {
+                int index = 1;
+                if (patch.getPrice() != null) {
+                    ps.setBigDecimal(index++, patch.getPrice());
+                }
+                if (patch.getStock() != null) {
+                    ps.setInt(index++, patch.getStock());
+                }
+                if (patch.getRequiresPrescription() != null) {
+                    ps.setBoolean(index++, patch.getRequiresPrescription());
+                }
+                ps.setLong(index, patch.getId());
+            });
+
+            for (int batch = 0; batch < updated.length; batch++) {
+                for (int i = 0; i < updated[batch].length; i++) {
+                    if (updated[batch][i] == 0) {
+                        missing.add(group.get(batch * PATCH_BATCH_SIZE + i).getId());
+                    }
+                }
+            }
+        });
+        return missing;
+    }
+
+    private static List<String> columns(ProductPatchRequest.ProductPatch patch) {
+        List<String> columns = new ArrayList<>(3);
+        if (patch.getPrice() != null) {
+            columns.add("price");
+        }
+        if (patch.getStock() != null) {
+            columns.add("stock");
+        }
+        if (patch.getRequiresPrescription() != null) {
+            columns.add("requires_prescription");
+        }
+        return columns;
+    }
+}
\ No newline at end of file
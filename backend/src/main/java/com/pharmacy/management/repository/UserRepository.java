@@ -1,13 +1,35 @@
 package com.pharmacy.management.repository;
 
 import com.pharmacy.management.model.User;
+import com.pharmacy.management.payload.UserSummary;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
-} 
\ No newline at end of file
+
+    @Query("SELECT u.id FROM User u WHERE u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    /**
+     * A page of users without their orders, newest first
+     * @param after ID the page starts below
+     * @param limit Maximum number of users
+     */
+    @Query("SELECT new com.pharmacy.management.payload.UserSummary(u.id, u.name, u.email, u.contactNumber, " +
+            "u.address, u.role) FROM User u WHERE u.id < :after ORDER BY u.id DESC")
+    List<UserSummary> findSummaryPage(@Param("after") long after, Limit limit);
+
+    // Users are serialized with their orders, so the collection is fetched with them
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.orders WHERE u.id IN :ids ORDER BY u.id DESC")
+    List<User> findWithOrdersByIdIn(@Param("ids") Collection<Long> ids);
+} 
@@ -1,69 +1,103 @@
 package com.pharmacy.management.security;
 
+import com.pharmacy.management.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
-import java.util.function.Function;
 
+/**
+ * Issues and verifies the JWTs requests are authenticated with. Tokens carry the user ID and role as
+ * signed claims, so a verified token is enough to authenticate a request without loading the user.
+ * The signing key and parser are built once; both are thread-safe. Verified tokens are cached until they expire.
+ * Access tokens are short-lived and each has an ID (the jti claim), which is checked against the revocation list
+ * on every request, cached or not; refresh tokens extend a sign-in (see RefreshTokenService).
+ */
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
-    @Value("${app.jwtSecret:defaultSecretKeyWhichIsAtLeast32BytesLongForHS256Algorithm}")
-    private String jwtSecret;
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLE_CLAIM = "role";
 
-    @Value("${app.jwtExpirationMs:86400000}")
-    private int jwtExpirationMs;
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final int jwtExpirationMs;
+    private final VerifiedTokenCache tokenCache;
+    private final TokenRevocationList revocationList;
 
-    private Key getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JwtUtils(VerifiedTokenCache tokenCache, TokenRevocationList revocationList,
+                    @Value("${app.jwtSecret:defaultSecretKeyWhichIsAtLeast32BytesLongForHS256Algorithm}") String jwtSecret,
+                    @Value("${app.jwtExpirationMs:900000}") int jwtExpirationMs) {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.tokenCache = tokenCache;
+        this.revocationList = revocationList;
     }
 
-    public String generateJwtToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-
+    /**
+     * @param user User the token is issued to
+     * @param tokenId Unique ID of the token, which it can be revoked by
+     * @param issuedAt When the token is issued; it expires app.jwtExpirationMs later
+     */
+    public String generateJwtToken(User user, String tokenId, Date issuedAt) {
         return Jwts.builder()
-                .setSubject(userPrincipal.getUsername())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setId(tokenId)
+                .setSubject(user.getEmail())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(ROLE_CLAIM, user.getRole().name())
+                .setIssuedAt(issuedAt)
+                .setExpiration(new Date(issuedAt.getTime() + jwtExpirationMs))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String getUserNameFromJwtToken(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    /**
+     * Verify a token and read who it was issued to, parsing it at most once while it is cached
+     * @param token Compact JWT from the Authorization header
+     * @return The user the token stands for, or null if it is invalid, expired, revoked or lacks the user claims
+     */
+    public AuthenticatedUser parseJwtToken(String token) {
+        VerifiedTokenCache.VerifiedToken verified = tokenCache.get(token, this::verify);
+        // A cached token may have expired or been revoked since it was cached
+        if (verified == null || verified.getExpiresAt() <= System.currentTimeMillis()
+                || revocationList.isRevoked(verified.getUser().getTokenId())) {
+            return null;
+        }
+        return verified.getUser();
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public int getJwtExpirationMs() {
+        return jwtExpirationMs;
     }
 
-    public boolean validateJwtToken(String token) {
+    private VerifiedTokenCache.VerifiedToken verify(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            Number userId = claims.get(USER_ID_CLAIM, Number.class);
+            String role = claims.get(ROLE_CLAIM, String.class);
+            if (userId == null || role == null || claims.getId() == null || claims.getSubject() == null
+                    || claims.getExpiration() == null) {
+                // Issued before tokens carried these claims; the user has to sign in again
+                return null;
+            }
+            AuthenticatedUser user = new AuthenticatedUser(userId.longValue(), claims.getSubject(),
+                    User.Role.valueOf(role), claims.getId());
+            return new VerifiedTokenCache.VerifiedToken(user, claims.getExpiration().getTime());
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Rejected JWT: {}", e.getMessage());
+            return null;
         }
     }
-} 
\ No newline at end of file
+}
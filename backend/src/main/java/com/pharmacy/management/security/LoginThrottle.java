@@ -0,0 +1,109 @@
+package com.pharmacy.management.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pharmacy.management.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token-bucket limits on sign-in and sign-up attempts, one bucket per client IP and one per account email.
+ * A bucket holds up to its capacity of attempts and refills at a steady rate, so short bursts pass while a
+ * sustained stream is held to the refill rate. An attempt needs a token from both buckets.
+ * Buckets idle for app.auth.throttle.idleTimeout are dropped.
+ */
+@Component
+public class LoginThrottle {
+
+    private final Cache<String, TokenBucket> ipBuckets;
+    private final Cache<String, TokenBucket> accountBuckets;
+    private final int ipCapacity;
+    private final double ipRefillPerSecond;
+    private final int accountCapacity;
+    private final double accountRefillPerSecond;
+    private final LongAdder throttledByIp = new LongAdder();
+    private final LongAdder throttledByAccount = new LongAdder();
+
+    public LoginThrottle(@Value("${app.auth.throttle.ipCapacity:20}") int ipCapacity,
+                         @Value("${app.auth.throttle.ipRefillPerMinute:60}") int ipRefillPerMinute,
+                         @Value("${app.auth.throttle.accountCapacity:5}") int accountCapacity,
+                         @Value("${app.auth.throttle.accountRefillPerMinute:5}") int accountRefillPerMinute,
+                         @Value("${app.auth.throttle.idleTimeout:PT15M}") Duration idleTimeout,
+                         @Value("${app.auth.throttle.maximumKeys:100000}") long maximumKeys) {
+        this.ipBuckets = Caffeine.newBuilder().expireAfterAccess(idleTimeout).maximumSize(maximumKeys).build();
+        this.accountBuckets = Caffeine.newBuilder().expireAfterAccess(idleTimeout).maximumSize(maximumKeys).build();
+        this.ipCapacity = ipCapacity;
+        this.ipRefillPerSecond = ipRefillPerMinute / 60.0;
+        this.accountCapacity = accountCapacity;
+        this.accountRefillPerSecond = accountRefillPerMinute / 60.0;
+    }
+
+    /**
+     * Take a token for an attempt from the client's and the account's buckets
+     * @param clientIp Address the request came from
+     * @param email Account the attempt is for; may be null
+     * @throws TooManyRequestsException When either bucket is empty, with when to try again
+     */
+    public void acquire(String clientIp, String email) {
+        TokenBucket ip = ipBuckets.get(clientIp, key -> new TokenBucket(ipCapacity, ipRefillPerSecond));
+        long ipWait = ip.tryTake();
+        if (ipWait > 0) {
+            throttledByIp.increment();
+            throw new TooManyRequestsException("Too many attempts from this address; try again later", seconds(ipWait));
+        }
+        if (email == null) {
+            return;
+        }
+        TokenBucket account = accountBuckets.get(email.trim().toLowerCase(Locale.ROOT),
+                key -> new TokenBucket(accountCapacity, accountRefillPerSecond));
+        long accountWait = account.tryTake();
+        if (accountWait > 0) {
+            throttledByAccount.increment();
+            throw new TooManyRequestsException("Too many attempts for this account; try again later", seconds(accountWait));
+        }
+    }
+
+    public long getThrottledByIp() {
+        return throttledByIp.sum();
+    }
+
+    public long getThrottledByAccount() {
+        return throttledByAccount.sum();
+    }
+
+    private static long seconds(long nanos) {
+        return Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static class TokenBucket {
+        private final int capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        private TokenBucket(int capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.tokens = capacity;
+        }
+
+        /**
+         * @return 0 if a token was taken, otherwise nanoseconds until one is available
+         */
+        private synchronized long tryTake() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * refillPerNano);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return refillPerNano > 0 ? (long) Math.ceil((1 - tokens) / refillPerNano) : Long.MAX_VALUE;
+        }
+    }
+}
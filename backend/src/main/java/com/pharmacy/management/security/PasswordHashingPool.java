@@ -0,0 +1,185 @@
+package com.pharmacy.management.security;
+
+import com.pharmacy.management.exception.TooManyRequestsException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool that password hashing and verification run on, so a burst of logins or sign-ups takes at most
+ * app.auth.hashing.threads CPUs and never the request threads that serve everything else. Work beyond
+ * app.auth.hashing.queueCapacity waiting tasks is refused at once with 429 instead of queueing behind
+ * hashes that would not finish in time, and work that still waited longer than app.auth.hashing.maxQueueWait
+ * is refused the same way when it reaches a thread, as its caller has likely given up.
+ */
+@Component
+public class PasswordHashingPool {
+
+    private final ThreadPoolExecutor executor;
+    private final long maxQueueWaitNanos;
+
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+    private final LongAdder tasks = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public PasswordHashingPool(@Value("${app.auth.hashing.threads:0}") int threads,
+                               @Value("${app.auth.hashing.queueCapacity:32}") int queueCapacity,
+                               @Value("${app.auth.hashing.maxQueueWait:PT5S}") Duration maxQueueWait) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new HashingThread(runnable, "password-hashing-" + count.incrementAndGet()));
+        this.maxQueueWaitNanos = maxQueueWait.toNanos();
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Run work that hashes or verifies passwords on the pool
+     * @param work Runs on a pool thread; hashing it does runs inline there
+     * @return Completes with the result of the work
+     * @throws TooManyRequestsException When the queue is full; the future fails with it when the work waited too long
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long waited = System.nanoTime() - queuedAt;
+                waitNanos.add(waited);
+                tasks.increment();
+                if (waited > maxQueueWaitNanos) {
+                    throw busy();
+                }
+                return work.get();
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            throw busy();
+        }
+    }
+
+    /**
+     * Run one hash or verification on the pool and wait for it, or inline when already on a pool thread
+     */
+    <T> T run(Supplier<T> hash) {
+        if (Thread.currentThread() instanceof HashingThread) {
+            return timed(hash);
+        }
+        CompletableFuture<T> future = submit(() -> timed(hash));
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public PasswordHashingStats getStats() {
+        long hashCount = hashes.sum();
+        long taskCount = tasks.sum();
+        return new PasswordHashingStats(
+                hashCount,
+                hashCount == 0 ? 0 : hashNanos.sum() / hashCount / 1_000,
+                maxHashNanos.get() / 1_000,
+                taskCount == 0 ? 0 : waitNanos.sum() / taskCount / 1_000,
+                executor.getActiveCount(),
+                executor.getQueue().size(),
+                rejected.sum());
+    }
+
+    private TooManyRequestsException busy() {
+        rejected.increment();
+        return new TooManyRequestsException("Too many sign-ins are being processed; try again shortly", 1);
+    }
+
+    private <T> T timed(Supplier<T> hash) {
+        long start = System.nanoTime();
+        try {
+            return hash.get();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            hashes.increment();
+            hashNanos.add(elapsed);
+            maxHashNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    private static class HashingThread extends Thread {
+        private HashingThread(Runnable runnable, String name) {
+            super(runnable, name);
+            setDaemon(true);
+        }
+    }
+
+    /**
+     * Latencies are in microseconds
+     */
+    public static class PasswordHashingStats {
+        private final long hashCount;
+        private final long averageHashMicros;
+        private final long maxHashMicros;
+        private final long averageQueueWaitMicros;
+        private final int activeThreads;
+        private final int queued;
+        private final long rejected;
+
+        private PasswordHashingStats(long hashCount, long averageHashMicros, long maxHashMicros,
+                                     long averageQueueWaitMicros, int activeThreads, int queued, long rejected) {
+            this.hashCount = hashCount;
+            this.averageHashMicros = averageHashMicros;
+            this.maxHashMicros = maxHashMicros;
+            this.averageQueueWaitMicros = averageQueueWaitMicros;
+            this.activeThreads = activeThreads;
+            this.queued = queued;
+            this.rejected = rejected;
+        }
+
+        public long getHashCount() {
+            return hashCount;
+        }
+
+        public long getAverageHashMicros() {
+            return averageHashMicros;
+        }
+
+        public long getMaxHashMicros() {
+            return maxHashMicros;
+        }
+
+        public long getAverageQueueWaitMicros() {
+            return averageQueueWaitMicros;
+        }
+
+        public int getActiveThreads() {
+            return activeThreads;
+        }
+
+        public int getQueued() {
+            return queued;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+    }
+}
@@ -1,9 +1,5 @@
 package com.pharmacy.management.security;
 
-import com.pharmacy.management.model.Order;
-import com.pharmacy.management.model.Payment;
-import com.pharmacy.management.model.Prescription;
-import com.pharmacy.management.model.User;
 import com.pharmacy.management.repository.OrderRepository;
 import com.pharmacy.management.repository.PaymentRepository;
 import com.pharmacy.management.repository.PrescriptionRepository;
@@ -12,8 +8,13 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
-
+/**
+ * Ownership predicates for method security. The caller's ID comes from the token's claims, so the user is not loaded.
+ * Order ownership is answered by an existence query on primary keys. Payments and prescriptions are read with the
+ * same findById the controllers' own fetches use, and the owner is taken from foreign keys without loading further;
+ * as the persistence context stays open for the whole request, the controller then gets that entity without
+ * reading the row again.
+ */
 @Service
 @RequiredArgsConstructor
 public class SecurityService {
@@ -24,61 +25,40 @@ public class SecurityService {
     private final PaymentRepository paymentRepository;
 
     public boolean isSameUser(Authentication authentication, Long userId) {
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return false;
-        }
-        
-        Optional<User> userOptional = userRepository.findByEmail(authentication.getName());
-        return userOptional.isPresent() && userOptional.get().getId().equals(userId);
+        Long currentUserId = currentUserId(authentication);
+        return currentUserId != null && currentUserId.equals(userId);
     }
 
     public boolean isOrderOwner(Authentication authentication, Long orderId) {
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return false;
-        }
-        
-        Optional<User> userOptional = userRepository.findByEmail(authentication.getName());
-        if (userOptional.isEmpty()) {
-            return false;
-        }
-        
-        User user = userOptional.get();
-        Optional<Order> orderOptional = orderRepository.findById(orderId);
-        return orderOptional.isPresent() && orderOptional.get().getUser().getId().equals(user.getId());
+        Long userId = currentUserId(authentication);
+        return userId != null && orderId != null && orderRepository.existsByIdAndUserId(orderId, userId);
     }
 
     public boolean isPrescriptionOwner(Authentication authentication, Long prescriptionId) {
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return false;
-        }
-        
-        Optional<User> userOptional = userRepository.findByEmail(authentication.getName());
-        if (userOptional.isEmpty()) {
-            return false;
-        }
-        
-        User user = userOptional.get();
-        Optional<Prescription> prescriptionOptional = prescriptionRepository.findById(prescriptionId);
-        return prescriptionOptional.isPresent() && prescriptionOptional.get().getUser().getId().equals(user.getId());
+        Long userId = currentUserId(authentication);
+        return userId != null && prescriptionId != null && prescriptionRepository.findById(prescriptionId)
+                .map(prescription -> userId.equals(prescription.getUser().getId()))
+                .orElse(false);
     }
 
     public boolean isPaymentOwner(Authentication authentication, Long paymentId) {
+        Long userId = currentUserId(authentication);
+        // The order's user is a lazy reference, so reading its ID does not load the user
+        return userId != null && paymentId != null && paymentRepository.findById(paymentId)
+                .map(payment -> userId.equals(payment.getOrder().getUser().getId()))
+                .orElse(false);
+    }
+
+    /**
+     * ID of the authenticated user, from the token when authenticated by JWT
+     */
+    Long currentUserId(Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
-            return false;
-        }
-        
-        Optional<User> userOptional = userRepository.findByEmail(authentication.getName());
-        if (userOptional.isEmpty()) {
-            return false;
+            return null;
         }
-        
-        User user = userOptional.get();
-        Optional<Payment> paymentOptional = paymentRepository.findById(paymentId);
-        if (paymentOptional.isEmpty()) {
-            return false;
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getId();
         }
-        
-        Payment payment = paymentOptional.get();
-        return payment.getOrder().getUser().getId().equals(user.getId());
+        return userRepository.findIdByEmail(authentication.getName()).orElse(null);
     }
-} 
\ No newline at end of file
+}
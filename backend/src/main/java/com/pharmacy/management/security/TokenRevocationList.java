@@ -0,0 +1,186 @@
+package com.pharmacy.management.security;
+
+import com.pharmacy.management.model.RevokedToken;
+import com.pharmacy.management.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Access tokens revoked before they expire, checked on every authenticated request. A Bloom filter in front of
+ * the exact set answers almost every check for a token that is not revoked from a few bits, and the set settles
+ * the rest; neither allocates. Revocations are stored in revoked_tokens, which is loaded at startup and reloaded
+ * every app.auth.revocation.reloadInterval, so revocations made by another instance take effect here by then and
+ * tokens past their expiry are dropped. Reads take no lock; revocations and reloads are serialized.
+ */
+@Component
+public class TokenRevocationList {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TransactionTemplate ownTransaction;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    // Token ID to when the token expires, in epoch milliseconds
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository, PlatformTransactionManager transactionManager,
+                               @Value("${app.auth.revocation.expectedEntries:10000}") int expectedEntries,
+                               @Value("${app.auth.revocation.falsePositiveRate:0.01}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    @PostConstruct
+    public void load() {
+        reload();
+    }
+
+    /**
+     * @param tokenId ID (jti) of a verified access token
+     */
+    public boolean isRevoked(String tokenId) {
+        return filter.mightContain(tokenId) && revoked.containsKey(tokenId);
+    }
+
+    /**
+     * Revoke an access token until it expires
+     * @param tokenId ID (jti) of the token
+     * @param expiresAt When the token expires, in epoch milliseconds
+     */
+    public void revoke(String tokenId, long expiresAt) {
+        if (expiresAt <= System.currentTimeMillis() || revoked.containsKey(tokenId)) {
+            return;
+        }
+        if (!revokedTokenRepository.existsById(tokenId)) {
+            try {
+                // Flushed in a transaction of its own, so losing a race to revoke the same token does not
+                // fail the caller's transaction
+                ownTransaction.executeWithoutResult(status ->
+                        revokedTokenRepository.saveAndFlush(new RevokedToken(tokenId, toDateTime(expiresAt))));
+            } catch (DataIntegrityViolationException e) {
+                // Revoked concurrently, here or by another instance
+            }
+        }
+        add(tokenId, expiresAt);
+    }
+
+    /**
+     * Drop expired revocations and pick up those made elsewhere, rebuilding the filter to fit
+     */
+    @Scheduled(fixedDelayString = "${app.auth.revocation.reloadInterval:PT1M}",
+            initialDelayString = "${app.auth.revocation.reloadInterval:PT1M}")
+    public void reload() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.deleteExpired(now);
+        List<RevokedToken> stored = revokedTokenRepository.findByExpiresAtAfter(now);
+        synchronized (this) {
+            long nowMillis = System.currentTimeMillis();
+            revoked.values().removeIf(expiresAt -> expiresAt <= nowMillis);
+            for (RevokedToken token : stored) {
+                revoked.putIfAbsent(token.getTokenId(), toMillis(token.getExpiresAt()));
+            }
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2), falsePositiveRate);
+            revoked.keySet().forEach(rebuilt::put);
+            filter = rebuilt;
+        }
+        logger.debug("Loaded {} revoked tokens", revoked.size());
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    private synchronized void add(String tokenId, long expiresAt) {
+        // Into the set before the filter, so a reader that sees the bits finds the entry
+        revoked.put(tokenId, expiresAt);
+        filter.put(tokenId);
+        if (revoked.size() > filter.capacity) {
+            BloomFilter rebuilt = new BloomFilter(revoked.size() * 2, falsePositiveRate);
+            revoked.keySet().forEach(rebuilt::put);
+            filter = rebuilt;
+        }
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Bloom filter over token IDs. Its indexes come from String.hashCode, which a String caches, spread by a
+     * 64-bit mix and combined by double hashing, so a lookup reads a few words of the bit array and nothing more.
+     */
+    static class BloomFilter {
+        private final AtomicLongArray bits;
+        private final int mask;
+        private final int hashes;
+        private final int capacity;
+
+        BloomFilter(int capacity, double falsePositiveRate) {
+            double optimalBits = -capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+            int bitCount = Integer.highestOneBit((int) Math.min(Math.max(optimalBits, 64), 1 << 30) - 1) << 1;
+            this.bits = new AtomicLongArray(bitCount >>> 6);
+            this.mask = bitCount - 1;
+            this.hashes = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+            this.capacity = capacity;
+        }
+
+        void put(String key) {
+            long hash = mix(key.hashCode());
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < hashes; i++) {
+                int index = (h1 + i * h2) & mask;
+                long bit = 1L << index;
+                int word = index >>> 6;
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & bit) == 0 && !bits.compareAndSet(word, current, current | bit));
+            }
+        }
+
+        boolean mightContain(String key) {
+            long hash = mix(key.hashCode());
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < hashes; i++) {
+                int index = (h1 + i * h2) & mask;
+                if ((bits.get(index >>> 6) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Stafford's variant 13 of the MurmurHash3 finalizer
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
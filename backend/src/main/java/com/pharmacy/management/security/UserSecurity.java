@@ -7,13 +7,14 @@ import org.springframework.stereotype.Component;
 @Component("userSecurity")
 public class UserSecurity {
 
+    private final SecurityService securityService;
+
+    public UserSecurity(SecurityService securityService) {
+        this.securityService = securityService;
+    }
+
     public boolean isCurrentUser(Long userId) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return false;
-        }
-        
-        String currentUserEmail = authentication.getName();
-        return userId != null && currentUserEmail.equals(userId.toString());
+        return userId != null && securityService.isSameUser(authentication, userId);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,136 @@
+package com.pharmacy.management.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.pharmacy.management.payload.TokenCacheStatsResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Tokens that have already been verified, so a token sent again is not decoded and its signature not checked again.
+ * Entries are keyed by a SHA-256 digest of the token, so the tokens themselves are not kept, and hold the user the
+ * token stands for. An entry expires when its token does and the cache is bounded by app.jwt.tokenCache.maximumSize.
+ * Invalid tokens are never cached. Revocation is checked by JwtUtils on every lookup, cached or not, so revoking
+ * a token need not touch this cache; invalidating it only frees the entry early.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, VerifiedToken> tokens;
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder verificationNanos = new LongAdder();
+
+    public VerifiedTokenCache(@Value("${app.jwt.tokenCache.maximumSize:10000}") long maximumSize) {
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        return untilExpiry(token);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return untilExpiry(token);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * The user a token stands for, verifying it only if it is not cached
+     * @param token Compact JWT
+     * @param verifier Verifies the token; returns null when it is invalid
+     * @return The verified token, or null if it is invalid
+     */
+    public VerifiedToken get(String token, Function<String, VerifiedToken> verifier) {
+        return tokens.get(digest(token), key -> {
+            long start = System.nanoTime();
+            try {
+                return verifier.apply(token);
+            } finally {
+                verificationNanos.add(System.nanoTime() - start);
+                verifications.increment();
+            }
+        });
+    }
+
+    /**
+     * Revocation hook: stop serving a token from the cache
+     */
+    public void invalidate(String token) {
+        tokens.invalidate(digest(token));
+    }
+
+    /**
+     * Revocation hook: stop serving any of a user's tokens from the cache
+     */
+    public void invalidateUser(Long userId) {
+        tokens.asMap().values().removeIf(token -> Objects.equals(token.getUser().getId(), userId));
+    }
+
+    public TokenCacheStatsResponse getStats() {
+        CacheStats stats = tokens.stats();
+        long count = verifications.sum();
+        long averageVerificationNanos = count == 0 ? 0 : verificationNanos.sum() / count;
+        return new TokenCacheStatsResponse(
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount(),
+                tokens.estimatedSize(),
+                averageVerificationNanos
+        );
+    }
+
+    private static long untilExpiry(VerifiedToken token) {
+        return Math.max(0, TimeUnit.MILLISECONDS.toNanos(token.getExpiresAt() - System.currentTimeMillis()));
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static class VerifiedToken {
+        private final AuthenticatedUser user;
+        private final long expiresAt;
+
+        public VerifiedToken(AuthenticatedUser user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+
+        public AuthenticatedUser getUser() {
+            return user;
+        }
+
+        /**
+         * When the token expires, in epoch milliseconds
+         */
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.pharmacy.management.service;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the product catalog as served by the API, bumped after every committed product change.
+ * The bump runs after all other ProductChangedEvent and ProductsReloadedEvent listeners, so once a version is visible the
+ * product cache and indexes already reflect it. Versions start from the boot time, so a
+ * restarted instance never reuses a version it handed out before.
+ */
+@Component
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong counter = new AtomicLong();
+
+    public String current() {
+        return epoch + "-" + counter.get();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        counter.incrementAndGet();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener(ProductsReloadedEvent.class)
+    public void onProductsReloaded() {
+        counter.incrementAndGet();
+    }
+}
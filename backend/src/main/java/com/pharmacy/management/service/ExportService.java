@@ -0,0 +1,268 @@
+package com.pharmacy.management.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams order, payment and prescription history as NDJSON or CSV.
+ * Rows are read through a JDBC cursor with a fixed fetch size and written out as they arrive,
+ * so memory use does not grow with the number of rows exported.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv;charset=UTF-8", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format fromName(String name) {
+            String format = name == null ? "" : name.toLowerCase(Locale.ROOT);
+            if (format.equals("csv")) {
+                return CSV;
+            }
+            if (format.equals("ndjson") || format.equals("jsonl")) {
+                return NDJSON;
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + name + "; use ndjson or csv");
+        }
+    }
+
+    /**
+     * What can be exported: the columns written, and the timestamp column the date range applies to and rows are
+     * ordered by, with the ID breaking ties. Each query reads a single table, so the (date, id) index serves
+     * both the range and the order and rows stream in index order instead of being sorted first; related
+     * values come from scalar subqueries rather than joins the planner might start from.
+     */
+    public enum Dataset {
+        ORDERS("orders", "o.order_date", "o.id",
+                "SELECT o.id, o.order_date, o.status, o.total_price, o.user_id, " +
+                        "(SELECT u.email FROM users u WHERE u.id = o.user_id), o.shipping_address FROM orders o",
+                "id", "orderDate", "status", "totalPrice", "userId", "userEmail", "shippingAddress"),
+        PAYMENTS("payments", "p.payment_date", "p.id",
+                "SELECT p.id, p.order_id, (SELECT o.user_id FROM orders o WHERE o.id = p.order_id), p.payment_date, " +
+                        "p.payment_method, p.amount, p.status, p.transaction_id FROM payments p",
+                "id", "orderId", "userId", "paymentDate", "paymentMethod", "amount", "status", "transactionId"),
+        PRESCRIPTIONS("prescriptions", "p.upload_date", "p.id",
+                "SELECT p.id, p.user_id, p.upload_date, p.file_name, p.verified, p.rejected, p.verified_by, " +
+                        "p.verification_date FROM prescriptions p",
+                "id", "userId", "uploadDate", "fileName", "verified", "rejected", "verifiedBy", "verificationDate");
+
+        private final String name;
+        private final String dateColumn;
+        private final String idColumn;
+        private final String select;
+        private final String[] columns;
+
+        Dataset(String name, String dateColumn, String idColumn, String select, String... columns) {
+            this.name = name;
+            this.dateColumn = dateColumn;
+            this.idColumn = idColumn;
+            this.select = select;
+            this.columns = columns;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ExportService(DataSource dataSource, ObjectMapper objectMapper,
+                         @Value("${app.export.fetchSize:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Check a date range before anything is written, so a bad request can still be answered with an error
+     * @param from First day included, or null for no lower bound
+     * @param to Last day included, or null for no upper bound
+     */
+    public void validateRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Export range starts after it ends: " + from + " to " + to);
+        }
+    }
+
+    /**
+     * Write the rows of a dataset in a date range, oldest first
+     * @param dataset What to export
+     * @param from First day included, or null for no lower bound
+     * @param to Last day included, or null for no upper bound
+     * @param format NDJSON, one object per line, or CSV with a header row
+     * @param output Stream the rows are written to; flushed but not closed
+     * @return Number of rows written
+     */
+    public long export(Dataset dataset, LocalDate from, LocalDate to, Format format, OutputStream output)
+            throws IOException {
+        validateRange(from, to);
+
+        StringBuilder sql = new StringBuilder(dataset.select);
+        List<Object> args = new ArrayList<>(2);
+        if (from != null) {
+            sql.append(" WHERE ").append(dataset.dateColumn).append(" >= ?");
+            args.add(Timestamp.valueOf(from.atStartOfDay()));
+        }
+        if (to != null) {
+            sql.append(from != null ? " AND " : " WHERE ").append(dataset.dateColumn).append(" < ?");
+            args.add(Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        }
+        sql.append(" ORDER BY ").append(dataset.dateColumn).append(", ").append(dataset.idColumn);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        RowWriter rows = format == Format.CSV
+                ? new CsvRowWriter(writer, dataset.columns)
+                : new JsonRowWriter(writer, dataset.columns);
+        long[] count = {0};
+        try {
+            jdbcTemplate.query(sql.toString(), rs -> {
+                try {
+                    rows.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            }, args.toArray());
+        } catch (UncheckedIOException e) {
+            // Usually the client going away part way through
+            logger.debug("Export of {} stopped after {} rows: {}", dataset.name, count[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+        rows.finish();
+        logger.debug("Exported {} {} rows", count[0], dataset.name);
+        return count[0];
+    }
+
+    private static Object value(ResultSet rs, int column) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        return value;
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private class JsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private final String[] columns;
+
+        private JsonRowWriter(Writer writer, String[] columns) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.setRootValueSeparator(null);
+            this.columns = columns;
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                generator.writeFieldName(columns[i]);
+                Object value = value(rs, i + 1);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof BigDecimal decimal) {
+                    generator.writeNumber(decimal);
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.longValue());
+                } else if (value instanceof Boolean bool) {
+                    generator.writeBoolean(bool);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private final String[] columns;
+
+        private CsvRowWriter(Writer writer, String[] columns) throws IOException {
+            this.writer = writer;
+            this.columns = columns;
+            writer.write(String.join(",", columns));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = value(rs, i + 1);
+                if (value != null) {
+                    writer.write(escape(value.toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+    }
+}
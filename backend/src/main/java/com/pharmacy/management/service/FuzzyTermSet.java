@@ -0,0 +1,100 @@
+package com.pharmacy.management.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Sorted term set searchable by Levenshtein distance.
+ * A search runs the query's Levenshtein automaton over the sorted terms as if they formed a trie:
+ * one DP row per prefix character, rows shared with the previous term's common prefix, and
+ * every term under a prefix skipped as soon as that prefix's row exceeds the edit budget.
+ * Cost grows with the number of prefixes within reach of the query, not with the number of terms.
+ * Not thread-safe: ProductSearchIndex guards it with its read/write lock.
+ */
+class FuzzyTermSet {
+
+    private final NavigableSet<String> terms = new TreeSet<>();
+
+    void add(String term) {
+        terms.add(term);
+    }
+
+    void clear() {
+        terms.clear();
+    }
+
+    int size() {
+        return terms.size();
+    }
+
+    /**
+     * Collect every term within maxEdits insertions, deletions or substitutions of the query
+     */
+    void search(String query, int maxEdits, List<String> results) {
+        int width = query.length() + 1;
+        int[][] rows = new int[16][];
+        rows[0] = new int[width];
+        for (int i = 0; i < width; i++) {
+            rows[0][i] = i;
+        }
+
+        String previous = "";
+        int validDepth = 0;
+        String term = terms.isEmpty() ? null : terms.first();
+        while (term != null) {
+            int depth = Math.min(commonPrefix(previous, term), validDepth);
+            boolean pruned = false;
+            while (depth < term.length()) {
+                if (depth + 1 == rows.length) {
+                    rows = Arrays.copyOf(rows, rows.length * 2);
+                }
+                if (rows[depth + 1] == null) {
+                    rows[depth + 1] = new int[width];
+                }
+                if (step(query, term.charAt(depth), rows[depth], rows[depth + 1]) > maxEdits) {
+                    pruned = true;
+                    break;
+                }
+                depth++;
+            }
+
+            previous = term;
+            validDepth = depth;
+            if (pruned) {
+                // Nothing under this prefix can come back within budget
+                term = terms.higher(term.substring(0, depth + 1) + Character.MAX_VALUE);
+            } else {
+                if (rows[depth][query.length()] <= maxEdits) {
+                    results.add(term);
+                }
+                term = terms.higher(term);
+            }
+        }
+    }
+
+    /**
+     * Advance the automaton by one term character
+     * @return The smallest edit count still reachable from this prefix
+     */
+    private static int step(String query, char c, int[] above, int[] row) {
+        row[0] = above[0] + 1;
+        int min = row[0];
+        for (int i = 1; i < row.length; i++) {
+            int cost = query.charAt(i - 1) == c ? 0 : 1;
+            row[i] = Math.min(Math.min(row[i - 1] + 1, above[i] + 1), above[i - 1] + cost);
+            min = Math.min(min, row[i]);
+        }
+        return min;
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+}
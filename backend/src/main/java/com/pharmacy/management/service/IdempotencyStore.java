@@ -0,0 +1,155 @@
+package com.pharmacy.management.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Responses to requests sent with an Idempotency-Key, so a retried request is answered with the
+ * original response instead of running again. An entry is the request fingerprint, status, content
+ * type and body bytes, kept for the full app.idempotency.ttl: entries only leave by expiring, since
+ * dropping one early would let a retry run the request twice. Once the stored responses reach
+ * app.idempotency.maximumBytes, requests with new keys are refused until enough entries expire.
+ * A duplicate arriving while the first attempt is still running waits for it and shares its
+ * response. Server errors are not kept, so a retry after one runs the request again.
+ */
+@Component
+public class IdempotencyStore {
+
+    public enum Outcome {
+        /** The key was new and this call ran the request */
+        EXECUTED,
+        /** The response is the one stored for an earlier, or concurrent, request with the key */
+        REPLAYED,
+        /** The key was used before for a different request; nothing was run */
+        KEY_REUSED,
+        /** The key was new but the store is full; nothing was run */
+        STORE_FULL
+    }
+
+    private final Cache<String, StoredResponse> responses;
+    private final SingleFlight<String, StoredResponse> inFlight = new SingleFlight<>();
+    private final AtomicLong storedBytes = new AtomicLong();
+    private final long maximumBytes;
+
+    public IdempotencyStore(@Value("${app.idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${app.idempotency.maximumBytes:16777216}") long maximumBytes) {
+        this.maximumBytes = maximumBytes;
+        // No size bound: Caffeine would evict entries that are still inside the TTL
+        this.responses = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .scheduler(Scheduler.systemScheduler())
+                .evictionListener((String key, StoredResponse response, RemovalCause cause) ->
+                        storedBytes.addAndGet(-weight(key, response)))
+                .build();
+    }
+
+    /**
+     * Run a request once per key
+     * @param key Idempotency key, already scoped to the caller
+     * @param fingerprint Hash of the request the key was sent with
+     * @param call Runs the request and returns its response; only called when the key is new
+     * @return How the request was answered, with the response unless the key was reused
+     */
+    public Result execute(String key, byte[] fingerprint, Supplier<StoredResponse> call) {
+        StoredResponse stored = responses.getIfPresent(key);
+        if (stored != null) {
+            return replay(stored, fingerprint);
+        }
+        if (isFull()) {
+            return new Result(Outcome.STORE_FULL, null);
+        }
+
+        boolean[] ran = {false};
+        StoredResponse response = inFlight.load(key, () -> {
+            // Another request with the key may have finished between the lookup and getting here
+            StoredResponse finished = responses.getIfPresent(key);
+            if (finished != null) {
+                return finished;
+            }
+            ran[0] = true;
+            StoredResponse produced = call.get();
+            // Stored even if this takes the store past its budget; the request has already run
+            if (produced.status < 500 && responses.asMap().putIfAbsent(key, produced) == null) {
+                storedBytes.addAndGet(weight(key, produced));
+            }
+            return produced;
+        });
+        return ran[0] ? new Result(Outcome.EXECUTED, response) : replay(response, fingerprint);
+    }
+
+    private boolean isFull() {
+        if (storedBytes.get() < maximumBytes) {
+            return false;
+        }
+        // Expired entries may not have been removed yet
+        responses.cleanUp();
+        return storedBytes.get() >= maximumBytes;
+    }
+
+    private static long weight(String key, StoredResponse response) {
+        return key.length() + response.weight();
+    }
+
+    private static Result replay(StoredResponse stored, byte[] fingerprint) {
+        return Arrays.equals(stored.fingerprint, fingerprint)
+                ? new Result(Outcome.REPLAYED, stored)
+                : new Result(Outcome.KEY_REUSED, null);
+    }
+
+    public static class StoredResponse {
+        private final byte[] fingerprint;
+        private final int status;
+        private final String contentType;
+        private final byte[] body;
+
+        public StoredResponse(byte[] fingerprint, int status, String contentType, byte[] body) {
+            this.fingerprint = fingerprint;
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        private int weight() {
+            return fingerprint.length + body.length + (contentType == null ? 0 : contentType.length()) + 16;
+        }
+    }
+
+    public static class Result {
+        private final Outcome outcome;
+        private final StoredResponse response;
+
+        private Result(Outcome outcome, StoredResponse response) {
+            this.outcome = outcome;
+            this.response = response;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public StoredResponse getResponse() {
+            return response;
+        }
+    }
+}
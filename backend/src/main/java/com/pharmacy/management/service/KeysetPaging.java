@@ -0,0 +1,69 @@
+package com.pharmacy.management.service;
+
+import com.pharmacy.management.payload.KeysetPage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page sizes and cursors for the admin list endpoints, which list newest first by ID.
+ * A page is read by seeking below the last ID served rather than skipping the rows before it,
+ * so deep pages cost the same index walk as the first.
+ */
+@Component
+public class KeysetPaging {
+
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public KeysetPaging(@Value("${app.adminLists.defaultPageSize:50}") int defaultPageSize,
+                        @Value("${app.adminLists.maxPageSize:200}") int maxPageSize) {
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * The requested page size clamped to the configured maximum, or the default when none was asked for
+     */
+    public int pageSize(Integer requested) {
+        return requested == null ? defaultPageSize : Math.min(Math.max(requested, 1), maxPageSize);
+    }
+
+    /**
+     * IDs below which the page starts
+     * @param list Name of the list the cursor must have come from
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @return The last ID of the previous page, or Long.MAX_VALUE for the first page
+     */
+    public long after(String list, String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\n", 2);
+            if (parts.length != 2 || !parts[0].equals(list)) {
+                throw new IllegalArgumentException("Cursor does not belong to list " + list);
+            }
+            return Long.parseLong(parts[1]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * Cut rows read with a limit of pageSize + 1 down to the page, with a cursor if the extra row shows more follow
+     */
+    public <T> KeysetPage<T> page(String list, List<T> rows, int pageSize, Function<T, Long> id) {
+        if (rows.size() <= pageSize) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> page = rows.subList(0, pageSize);
+        String raw = list + "\n" + id.apply(page.get(pageSize - 1));
+        return new KeysetPage<>(page, Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8)));
+    }
+}
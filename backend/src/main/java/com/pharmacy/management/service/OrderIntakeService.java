@@ -0,0 +1,190 @@
+package com.pharmacy.management.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pharmacy.management.model.Order;
+import com.pharmacy.management.model.User;
+import com.pharmacy.management.payload.OrderIntakeResponse;
+import com.pharmacy.management.payload.OrderRequest;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queued order intake for traffic spikes. Orders are accepted into a bounded in-memory queue and answered
+ * with a tracking ID straight away, without touching the database. A fixed set of workers drains the queue
+ * and places the orders in batches, one transaction per batch, so the number of connections used stays
+ * at the number of workers however many customers are ordering. When the queue is full new orders are
+ * refused rather than queued behind a backlog that cannot be worked off.
+ * Queued orders live in memory only; on shutdown the workers finish what is queued before stopping.
+ */
+@Service
+public class OrderIntakeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIntakeService.class);
+
+    private final OrderService orderService;
+    private final BlockingQueue<Ticket> queue;
+    private final Cache<String, Ticket> tickets;
+    private final int workerCount;
+    private final int batchSize;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean accepting = true;
+
+    public OrderIntakeService(OrderService orderService,
+                              @Value("${app.orderIntake.queueCapacity:10000}") int queueCapacity,
+                              @Value("${app.orderIntake.workers:2}") int workerCount,
+                              @Value("${app.orderIntake.batchSize:50}") int batchSize,
+                              @Value("${app.orderIntake.resultTtl:PT1H}") Duration resultTtl) {
+        this.orderService = orderService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.tickets = Caffeine.newBuilder()
+                .expireAfterWrite(resultTtl)
+                .build();
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "order-intake-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        accepting = false;
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        if (!queue.isEmpty()) {
+            logger.warn("Stopped with {} queued orders not placed", queue.size());
+        }
+    }
+
+    /**
+     * Queue an order for placing
+     * @param orderRequest Order, already validated
+     * @param user Customer placing it
+     * @return Tracking state of the queued order
+     * @throws RejectedExecutionException When the queue is full or the application is stopping
+     */
+    public OrderIntakeResponse submit(OrderRequest orderRequest, User user) {
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), orderRequest, user);
+        tickets.put(ticket.trackingId, ticket);
+        if (!accepting || !queue.offer(ticket)) {
+            tickets.invalidate(ticket.trackingId);
+            throw new RejectedExecutionException("Too many orders are waiting to be placed; try again shortly");
+        }
+        return ticket.toResponse();
+    }
+
+    /**
+     * Where a queued order stands
+     * @param trackingId ID returned when the order was queued
+     * @param requester User asking; customers only see their own orders
+     * @return Tracking state of the order
+     */
+    public OrderIntakeResponse getStatus(String trackingId, User requester) {
+        Ticket ticket = tickets.getIfPresent(trackingId);
+        boolean staff = requester.getRole() == User.Role.ADMIN || requester.getRole() == User.Role.PHARMACIST;
+        // Someone else's tracking ID is reported as unknown, so IDs cannot be probed
+        if (ticket == null || !(staff || Objects.equals(ticket.user.getId(), requester.getId()))) {
+            throw new EntityNotFoundException("No queued order with tracking id: " + trackingId);
+        }
+        return ticket.toResponse();
+    }
+
+    private void work() {
+        List<Ticket> batch = new ArrayList<>(batchSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                Ticket first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                place(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Order intake worker failed on a batch of {}", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void place(List<Ticket> batch) {
+        try {
+            List<OrderService.PendingOrder> pending = batch.stream()
+                    .map(ticket -> new OrderService.PendingOrder(ticket.request, ticket.user))
+                    .toList();
+            List<OrderService.BatchOutcome> outcomes = orderService.createOrders(pending);
+            for (int i = 0; i < batch.size(); i++) {
+                OrderService.BatchOutcome outcome = outcomes.get(i);
+                batch.get(i).finish(outcome.getOrder(), outcome.getRejection());
+            }
+        } catch (RuntimeException e) {
+            // One bad order fails the whole batch transaction, so place each on its own to isolate it
+            logger.warn("Batch of {} orders failed, placing them one at a time: {}", batch.size(), e.getMessage());
+            for (Ticket ticket : batch) {
+                try {
+                    ticket.finish(orderService.createOrder(ticket.request, ticket.user), null);
+                } catch (RuntimeException orderFailure) {
+                    ticket.finish(null, orderFailure.getMessage());
+                }
+            }
+        }
+    }
+
+    private static class Ticket {
+        private final String trackingId;
+        private final OrderRequest request;
+        private final User user;
+        private volatile OrderIntakeResponse.Status status = OrderIntakeResponse.Status.QUEUED;
+        private volatile Long orderId;
+        private volatile String message;
+
+        private Ticket(String trackingId, OrderRequest request, User user) {
+            this.trackingId = trackingId;
+            this.request = request;
+            this.user = user;
+        }
+
+        private void finish(Order order, String rejection) {
+            if (order != null) {
+                orderId = order.getId();
+                status = OrderIntakeResponse.Status.ACCEPTED;
+            } else {
+                message = rejection;
+                status = OrderIntakeResponse.Status.REJECTED;
+            }
+        }
+
+        private OrderIntakeResponse toResponse() {
+            return new OrderIntakeResponse(trackingId, status, orderId, message);
+        }
+    }
+}
@@ -4,17 +4,25 @@ import com.pharmacy.management.model.Order;
 import com.pharmacy.management.model.OrderItem;
 import com.pharmacy.management.model.Product;
 import com.pharmacy.management.model.User;
+import com.pharmacy.management.payload.KeysetPage;
 import com.pharmacy.management.payload.OrderRequest;
 import com.pharmacy.management.repository.OrderRepository;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,13 +33,21 @@ public class OrderService {
     private final ProductService productService;
     private final UserService userService;
     private final CartService cartService;
+    private final KeysetPaging keysetPaging;
 
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    /**
+     * A page of all orders, newest first
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param pageSize Requested page size, or null for the default
+     */
+    public KeysetPage<Order> getAllOrders(String cursor, Integer pageSize) {
+        int size = keysetPaging.pageSize(pageSize);
+        return withItems(keysetPaging.page("orders",
+                orderRepository.findPageIds(keysetPaging.after("orders", cursor), Limit.of(size + 1)), size, id -> id));
     }
 
     public Order getOrderById(Long id) {
-        return orderRepository.findById(id)
+        return orderRepository.findWithItemsById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Order not found with id: " + id));
     }
 
@@ -39,34 +55,100 @@ public class OrderService {
         return orderRepository.findByUserOrderByOrderDateDesc(user);
     }
 
-    public List<Order> getOrdersByStatus(Order.OrderStatus status) {
-        return orderRepository.findByStatus(status);
+    /**
+     * A page of the orders in a status, newest first
+     * @param status Order status
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param pageSize Requested page size, or null for the default
+     */
+    public KeysetPage<Order> getOrdersByStatus(Order.OrderStatus status, String cursor, Integer pageSize) {
+        String list = "orders:" + status.name();
+        int size = keysetPaging.pageSize(pageSize);
+        return withItems(keysetPaging.page(list,
+                orderRepository.findPageIdsByStatus(status, keysetPaging.after(list, cursor), Limit.of(size + 1)),
+                size, id -> id));
+    }
+
+    /**
+     * Orders with their items and products loaded
+     * @param ids Order IDs
+     * @return The orders found, highest ID first
+     */
+    public List<Order> getOrdersWithItems(Collection<Long> ids) {
+        return ids.isEmpty() ? List.of() : orderRepository.findWithItemsByIdIn(ids);
+    }
+
+    private KeysetPage<Order> withItems(KeysetPage<Long> ids) {
+        return new KeysetPage<>(getOrdersWithItems(ids.getItems()), ids.getNextCursor());
     }
 
     @Transactional
     public Order createOrder(OrderRequest orderRequest, User user) {
+        // Reserve stock for all lines in one batch before any product is loaded,
+        // so the guarded updates are the only writes to product stock
+        Map<Long, Integer> quantities = quantities(orderRequest);
+        productService.reserveStock(quantities);
+
+        // Load every referenced product in one query for pricing; not through the shared cache,
+        // as this transaction has already changed their stock
+        Map<Long, Product> products = productService.loadProductsByIds(quantities.keySet());
+
+        // Save and return order
+        return orderRepository.save(buildOrder(orderRequest, user, products));
+    }
+
+    /**
+     * Place several orders in one transaction, so a burst of orders costs one commit rather than one each.
+     * An order short of stock is rejected on its own without affecting the others.
+     * @param pending Orders with the customers placing them
+     * @return For each order, in the same order, the saved order or why it was rejected
+     */
+    @Transactional
+    public List<BatchOutcome> createOrders(List<PendingOrder> pending) {
+        List<Map<Long, Integer>> quantities = pending.stream().map(p -> quantities(p.getRequest())).toList();
+        List<String> rejections = productService.reserveStockForOrders(quantities);
+
+        Set<Long> productIds = new HashSet<>();
+        quantities.forEach(q -> productIds.addAll(q.keySet()));
+        Map<Long, Product> products = productService.loadProductsByIds(productIds);
+
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < pending.size(); i++) {
+            if (rejections.get(i) == null) {
+                orders.add(buildOrder(pending.get(i).getRequest(), pending.get(i).getUser(), products));
+            }
+        }
+        Iterator<Order> saved = orderRepository.saveAll(orders).iterator();
+
+        List<BatchOutcome> outcomes = new ArrayList<>(pending.size());
+        for (String rejection : rejections) {
+            outcomes.add(rejection == null ? new BatchOutcome(saved.next(), null) : new BatchOutcome(null, rejection));
+        }
+        return outcomes;
+    }
+
+    private static Map<Long, Integer> quantities(OrderRequest orderRequest) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderRequest.OrderItemRequest itemRequest : orderRequest.getItems()) {
+            quantities.merge(itemRequest.getProductId(), itemRequest.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private static Order buildOrder(OrderRequest orderRequest, User user, Map<Long, Product> products) {
         // Create new order
         Order order = new Order();
         order.setUser(user);
         order.setOrderDate(LocalDateTime.now());
         order.setStatus(Order.OrderStatus.PENDING);
         order.setShippingAddress(orderRequest.getShippingAddress());
-        
+
         List<OrderItem> orderItems = new ArrayList<>();
         BigDecimal totalPrice = BigDecimal.ZERO;
         
         // Create order items from request
         for (OrderRequest.OrderItemRequest itemRequest : orderRequest.getItems()) {
-            Product product = productService.getProductById(itemRequest.getProductId());
-            
-            // Validate product stock
-            if (product.getStock() < itemRequest.getQuantity()) {
-                throw new IllegalStateException(
-                    "Not enough stock for product: " + product.getName() + 
-                    ". Available: " + product.getStock() + 
-                    ", Requested: " + itemRequest.getQuantity()
-                );
-            }
+            Product product = products.get(itemRequest.getProductId());
             
             // Calculate item price
             BigDecimal itemPrice = product.getPrice().multiply(BigDecimal.valueOf(itemRequest.getQuantity()));
@@ -79,17 +161,11 @@ public class OrderService {
             orderItem.setQuantity(itemRequest.getQuantity());
             orderItem.setPrice(product.getPrice());
             orderItems.add(orderItem);
-            
-            // Update product stock
-            product.setStock(product.getStock() - itemRequest.getQuantity());
-            productService.updateProduct(product.getId(), product);
         }
         
         order.setTotalPrice(totalPrice);
         order.setOrderItems(orderItems);
-        
-        // Save and return order
-        return orderRepository.save(order);
+        return order;
     }
 
     @Transactional
@@ -110,14 +186,50 @@ public class OrderService {
         }
         
         // Return items to inventory
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
         for (OrderItem item : order.getOrderItems()) {
-            Product product = item.getProduct();
-            product.setStock(product.getStock() + item.getQuantity());
-            productService.updateProduct(product.getId(), product);
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
         }
+        productService.releaseStock(quantities);
         
         // Update order status
         order.setStatus(Order.OrderStatus.CANCELLED);
         return orderRepository.save(order);
     }
-} 
\ No newline at end of file
+
+    public static class PendingOrder {
+        private final OrderRequest request;
+        private final User user;
+
+        public PendingOrder(OrderRequest request, User user) {
+            this.request = request;
+            this.user = user;
+        }
+
+        public OrderRequest getRequest() {
+            return request;
+        }
+
+        public User getUser() {
+            return user;
+        }
+    }
+
+    public static class BatchOutcome {
+        private final Order order;
+        private final String rejection;
+
+        private BatchOutcome(Order order, String rejection) {
+            this.order = order;
+            this.rejection = rejection;
+        }
+
+        public Order getOrder() {
+            return order;
+        }
+
+        public String getRejection() {
+            return rejection;
+        }
+    }
+}
@@ -2,9 +2,11 @@ package com.pharmacy.management.service;
 
 import com.pharmacy.management.model.Order;
 import com.pharmacy.management.model.Payment;
+import com.pharmacy.management.payload.KeysetPage;
 import com.pharmacy.management.repository.PaymentRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,9 +20,22 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final OrderService orderService;
+    private final KeysetPaging keysetPaging;
 
-    public List<Payment> getAllPayments() {
-        return paymentRepository.findAll();
+    /**
+     * A page of all payments, newest first
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param pageSize Requested page size, or null for the default
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Payment> getAllPayments(String cursor, Integer pageSize) {
+        int size = keysetPaging.pageSize(pageSize);
+        KeysetPage<Payment> page = keysetPaging.page("payments",
+                paymentRepository.findPage(keysetPaging.after("payments", cursor), Limit.of(size + 1)),
+                size, Payment::getId);
+        // Payments are serialized with their orders' items, which this loads onto the orders already fetched
+        orderService.getOrdersWithItems(page.getItems().stream().map(payment -> payment.getOrder().getId()).toList());
+        return page;
     }
 
     public Payment getPaymentById(Long id) {
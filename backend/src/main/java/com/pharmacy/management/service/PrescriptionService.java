@@ -2,6 +2,7 @@ package com.pharmacy.management.service;
 
 import com.pharmacy.management.model.Prescription;
 import com.pharmacy.management.model.User;
+import com.pharmacy.management.payload.KeysetPage;
 import com.pharmacy.management.repository.PrescriptionRepository;
 import com.pharmacy.management.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
@@ -9,6 +10,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -21,7 +23,9 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -30,12 +34,23 @@ public class PrescriptionService {
 
     private final PrescriptionRepository prescriptionRepository;
     private final UserRepository userRepository;
+    private final UserService userService;
+    private final KeysetPaging keysetPaging;
 
     @Value("${file.upload-dir:uploads/prescriptions}")
     private String uploadDir;
 
-    public List<Prescription> getAllPrescriptions() {
-        return prescriptionRepository.findAll();
+    /**
+     * A page of all prescriptions, newest first
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param pageSize Requested page size, or null for the default
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Prescription> getAllPrescriptions(String cursor, Integer pageSize) {
+        int size = keysetPaging.pageSize(pageSize);
+        return withUsers(keysetPaging.page("prescriptions",
+                prescriptionRepository.findPage(keysetPaging.after("prescriptions", cursor), Limit.of(size + 1)),
+                size, Prescription::getId));
     }
 
     public Prescription getPrescriptionById(Long id) {
@@ -49,8 +64,34 @@ public class PrescriptionService {
         return prescriptionRepository.findByUserOrderByUploadDateDesc(user);
     }
 
-    public List<Prescription> getPrescriptionsByVerificationStatus(boolean verified) {
-        return prescriptionRepository.findByVerified(verified);
+    /**
+     * A page of the verified or not yet verified prescriptions, newest first
+     * @param verified Verification status
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param pageSize Requested page size, or null for the default
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Prescription> getPrescriptionsByVerificationStatus(boolean verified, String cursor, Integer pageSize) {
+        String list = verified ? "prescriptions:verified" : "prescriptions:pending";
+        int size = keysetPaging.pageSize(pageSize);
+        return withUsers(keysetPaging.page(list,
+                prescriptionRepository.findPageByVerified(verified, keysetPaging.after(list, cursor), Limit.of(size + 1)),
+                size, Prescription::getId));
+    }
+
+    /**
+     * Prescriptions are serialized with their users' orders, which this loads onto the users already fetched
+     */
+    private KeysetPage<Prescription> withUsers(KeysetPage<Prescription> page) {
+        Set<Long> userIds = new HashSet<>();
+        for (Prescription prescription : page.getItems()) {
+            userIds.add(prescription.getUser().getId());
+            if (prescription.getVerifiedBy() != null) {
+                userIds.add(prescription.getVerifiedBy().getId());
+            }
+        }
+        userService.getUsersWithOrders(userIds);
+        return page;
     }
 
     public List<Prescription> getPrescriptionsByRejectionStatus(boolean rejected) {
@@ -0,0 +1,161 @@
+package com.pharmacy.management.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.pharmacy.management.model.Product;
+import com.pharmacy.management.payload.CacheStatsResponse;
+import com.pharmacy.management.payload.CoalescedLoadStats;
+import com.pharmacy.management.payload.ProductSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory copy of the product catalog in front of ProductRepository.
+ * Caffeine's W-TinyLFU policy decides admission and eviction by access frequency.
+ * Single products are cached by ID and list queries, which hold ProductSummary rows, by a query key. Changed IDs are evicted
+ * after commit, and every list is dropped since any change can alter list membership. A bulk reload drops everything.
+ * Concurrent misses on the same key share one load: the first caller reads the database and the others wait for its result.
+ * Only committed data is cached: misses inside a read-write transaction, which may see its own uncommitted writes,
+ * are read through without being stored. Entries also expire app.productCache.expireAfterWrite after they are loaded,
+ * which bounds the life of anything an invalidation missed.
+ */
+@Component
+public class ProductCache {
+
+    private final Cache<Long, Optional<Product>> products;
+    private final Cache<String, List<ProductSummary>> lists;
+    private final SingleFlight<Long, Optional<Product>> productLoads = new SingleFlight<>();
+    private final SingleFlight<String, List<ProductSummary>> listLoads = new SingleFlight<>();
+
+    // Hits served without going through Caffeine's stats-recording lookups
+    private final LongAdder quietHits = new LongAdder();
+    // Bumped before every product invalidation, so a bulk load can tell that one overlapped it
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProductCache(@Value("${app.productCache.maximumSize:10000}") long maximumSize,
+                        @Value("${app.productCache.maximumLists:1000}") long maximumLists,
+                        @Value("${app.productCache.expireAfterWrite:PT10M}") Duration expireAfterWrite) {
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.lists = Caffeine.newBuilder()
+                .maximumSize(maximumLists)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Product> getProduct(Long id, Function<Long, Optional<Product>> loader) {
+        Optional<Product> cached = products.asMap().get(id);
+        if (cached != null) {
+            quietHits.increment();
+            return cached;
+        }
+        if (inWriteTransaction()) {
+            return loader.apply(id);
+        }
+        // The leader still loads through the cache so an invalidation racing the load is not lost
+        return productLoads.load(id, () -> products.get(id, loader));
+    }
+
+    public Map<Long, Optional<Product>> getProducts(
+            Collection<Long> ids, Function<Set<? extends Long>, Map<Long, Optional<Product>>> loader) {
+        Map<Long, Optional<Product>> found = new HashMap<>(products.getAllPresent(ids));
+        Set<Long> missing = new HashSet<>(ids);
+        missing.removeAll(found.keySet());
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        long version = invalidations.get();
+        Map<Long, Optional<Product>> loaded = loader.apply(missing);
+        found.putAll(loaded);
+        if (inWriteTransaction()) {
+            return found;
+        }
+        products.putAll(loaded);
+        // An invalidation that began during the load may have run before the put; drop what may be stale
+        if (invalidations.get() != version) {
+            products.invalidateAll(loaded.keySet());
+        }
+        return found;
+    }
+
+    public List<ProductSummary> getList(String key, Supplier<List<ProductSummary>> loader) {
+        List<ProductSummary> cached = lists.asMap().get(key);
+        if (cached != null) {
+            quietHits.increment();
+            return cached;
+        }
+        if (inWriteTransaction()) {
+            return List.copyOf(loader.get());
+        }
+        return listLoads.load(key, () -> {
+            long version = invalidations.get();
+            List<ProductSummary> loaded = lists.get(key, k -> List.copyOf(loader.get()));
+            // invalidateAll does not wait for a load still in progress, so it may have missed this one
+            if (invalidations.get() != version) {
+                lists.invalidate(key);
+            }
+            return loaded;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidations.incrementAndGet();
+        products.invalidateAll(event.getProductIds());
+        lists.invalidateAll();
+    }
+
+    @EventListener(ProductsReloadedEvent.class)
+    public void onProductsReloaded() {
+        invalidations.incrementAndGet();
+        products.invalidateAll();
+        lists.invalidateAll();
+    }
+
+    private static boolean inWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    public CacheStatsResponse getStats() {
+        CacheStats productStats = products.stats();
+        CacheStats listStats = lists.stats();
+        // Callers that waited on another caller's load missed too, but never reached Caffeine
+        long collapsed = productLoads.collapsedCount() + listLoads.collapsedCount();
+
+        Map<String, CoalescedLoadStats> coalescedLoads = new LinkedHashMap<>();
+        coalescedLoads.put("product", productLoads.getStats());
+        coalescedLoads.put("list", listLoads.getStats());
+        return new CacheStatsResponse(
+                productStats.hitCount() + listStats.hitCount() + quietHits.sum(),
+                productStats.missCount() + listStats.missCount() + collapsed,
+                productStats.evictionCount() + listStats.evictionCount(),
+                products.estimatedSize(),
+                lists.estimatedSize(),
+                coalescedLoads
+        );
+    }
+}
\ No newline at end of file
@@ -0,0 +1,527 @@
+package com.pharmacy.management.service;
+
+import com.pharmacy.management.model.Product;
+import com.pharmacy.management.payload.FacetCountsResponse;
+import com.pharmacy.management.repository.ProductRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Filterable, sortable view of the catalog held in memory.
+ * Every product gets an int ordinal. Each filter value (category, prescription flag, in stock)
+ * keeps a compressed Roaring bitmap of the ordinals that have it. Prices are bit-sliced, one bitmap
+ * per bit of the price in cents, so a price bound costs a couple of dozen bitmap operations
+ * however wide the range is. A query is then a handful of bitmap unions and intersections.
+ * Rows are also kept in one sorted set per sort order. A page continues strictly after the
+ * (sort value, product ID) encoded in the cursor, so deep pages cost the same as the first and
+ * inserts or deletes never shift or repeat results.
+ * Facet counts read the same bitmaps plus one bitmap per configured price bucket.
+ * The index is built once the application is ready and kept current from ProductChangedEvent.
+ */
+@Component
+public class ProductCatalogIndex {
+
+    public enum Sort { NAME, PRICE_ASC, PRICE_DESC, NEWEST }
+
+    private enum Facet { CATEGORY, PRESCRIPTION, STOCK, PRICE }
+
+    private static final Comparator<Row> NAME_ORDER = Comparator.<Row, String>comparing(r -> r.name)
+            .thenComparingLong(r -> r.id);
+    private static final Comparator<Row> PRICE_ORDER = Comparator.<Row>comparingLong(r -> r.priceCents)
+            .thenComparingLong(r -> r.id);
+    private static final Comparator<Row> ID_ORDER = Comparator.comparingLong(r -> r.id);
+
+    private final ProductRepository productRepository;
+
+    private final Map<Long, Row> rows = new HashMap<>();
+    private Row[] byOrdinal = new Row[1024];
+    private int nextOrdinal;
+    private final RoaringBitmap freeOrdinals = new RoaringBitmap();
+
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final RoaringBitmap prescription = new RoaringBitmap();
+    private final RoaringBitmap inStock = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> categories = new HashMap<>();
+    private final Map<String, String> categoryNames = new HashMap<>();
+    private RoaringBitmap[] priceBits = new RoaringBitmap[0];
+    private final long[] bucketBounds;
+    private final RoaringBitmap[] priceBuckets;
+
+    private final NavigableSet<Row> byName = new TreeSet<>(NAME_ORDER);
+    private final NavigableSet<Row> byPrice = new TreeSet<>(PRICE_ORDER);
+    private final NavigableSet<Row> byId = new TreeSet<>(ID_ORDER);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ProductCatalogIndex(ProductRepository productRepository,
+                               @Value("${app.catalog.priceBuckets:5,10,25,50,100}") BigDecimal[] priceBucketBounds) {
+        this.productRepository = productRepository;
+        this.bucketBounds = Arrays.stream(priceBucketBounds)
+                .mapToLong(bound -> cents(bound, RoundingMode.HALF_UP))
+                .sorted()
+                .distinct()
+                .toArray();
+        this.priceBuckets = new RoaringBitmap[bucketBounds.length + 1];
+        Arrays.setAll(priceBuckets, i -> new RoaringBitmap());
+    }
+
+    @EventListener({ApplicationReadyEvent.class, ProductsReloadedEvent.class})
+    public void rebuild() {
+        List<Product> products = productRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            List.copyOf(rows.keySet()).forEach(this::remove);
+            products.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        List<Product> products = productRepository.findStoredByIdIn(event.getProductIds());
+        lock.writeLock().lock();
+        try {
+            event.getProductIds().forEach(this::remove);
+            products.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the next page of products passing every filter
+     * @param filter Active filters
+     * @param sort Result order
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param limit Page size
+     * @return Product IDs for the page, the cursor of the following page if any, and the number of matches
+     */
+    public Result query(Filter filter, Sort sort, String cursor, int limit) {
+        Row after = cursor == null ? null : decodeCursor(cursor, sort);
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matches = matching(filter, null);
+            int total = matches.getCardinality();
+            long low = filter.minPrice == null ? Long.MIN_VALUE : cents(filter.minPrice, RoundingMode.CEILING);
+            long high = filter.maxPrice == null ? Long.MAX_VALUE : cents(filter.maxPrice, RoundingMode.FLOOR);
+            List<Row> page = page(matches, sort, after, limit + 1, low, high);
+
+            boolean more = page.size() > limit;
+            List<Long> ids = new ArrayList<>(Math.min(page.size(), limit));
+            for (int i = 0; i < page.size() && i < limit; i++) {
+                ids.add(page.get(i).id);
+            }
+            String next = more ? encodeCursor(page.get(limit - 1), sort) : null;
+            return new Result(ids, next, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count matches per category, prescription flag, stock state and price bucket.
+     * Each facet is counted with every filter applied except its own, so selecting a category
+     * still shows how many products the other categories would give. Without filters every count
+     * is the cardinality of a bitmap kept current on each product change; with filters it is the
+     * cardinality of an intersection, which never materializes the intersected set.
+     * @param filter Active filters
+     * @return Counts per facet value; categories and buckets without matches are left out
+     */
+    public FacetCountsResponse facets(Filter filter) {
+        lock.readLock().lock();
+        try {
+            long total = matching(filter, null).getLongCardinality();
+
+            RoaringBitmap base = matching(filter, Facet.CATEGORY);
+            Map<String, Long> categoryCounts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            categories.forEach((category, bitmap) -> {
+                long count = count(base, bitmap);
+                if (count > 0) {
+                    categoryCounts.put(categoryNames.get(category), count);
+                }
+            });
+
+            Map<Boolean, Long> prescriptionCounts = split(matching(filter, Facet.PRESCRIPTION), prescription);
+            Map<Boolean, Long> stockCounts = split(matching(filter, Facet.STOCK), inStock);
+
+            RoaringBitmap priced = matching(filter, Facet.PRICE);
+            List<FacetCountsResponse.PriceBucketCount> bucketCounts = new ArrayList<>();
+            for (int i = 0; i < priceBuckets.length; i++) {
+                long count = count(priced, priceBuckets[i]);
+                if (count > 0) {
+                    bucketCounts.add(new FacetCountsResponse.PriceBucketCount(
+                            i == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(bucketBounds[i - 1], 2),
+                            i == bucketBounds.length ? null : BigDecimal.valueOf(bucketBounds[i], 2),
+                            count));
+                }
+            }
+
+            return new FacetCountsResponse(total, categoryCounts, prescriptionCounts, stockCounts, bucketCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ordinals passing every filter except the skipped facet's own.
+     * Price bounds are applied last so the bit slices only compare rows the other filters kept.
+     */
+    private RoaringBitmap matching(Filter filter, Facet skip) {
+        List<RoaringBitmap> filters = new ArrayList<>();
+        filters.add(live);
+        if (skip != Facet.CATEGORY && filter.categories != null && !filter.categories.isEmpty()) {
+            filters.add(FastAggregation.or(filter.categories.stream()
+                    .map(category -> categories.getOrDefault(normalize(category), new RoaringBitmap()))
+                    .iterator()));
+        }
+        if (skip != Facet.PRESCRIPTION && filter.requiresPrescription != null) {
+            filters.add(filter.requiresPrescription ? prescription : RoaringBitmap.andNot(live, prescription));
+        }
+        if (skip != Facet.STOCK && filter.inStock != null) {
+            filters.add(filter.inStock ? inStock : RoaringBitmap.andNot(live, inStock));
+        }
+        if (filter.textMatches != null) {
+            RoaringBitmap text = new RoaringBitmap();
+            for (long id : filter.textMatches) {
+                Row row = rows.get(id);
+                if (row != null) {
+                    text.add(row.ordinal);
+                }
+            }
+            filters.add(text);
+        }
+
+        RoaringBitmap matches = filters.size() == 1 ? live : FastAggregation.and(filters.iterator());
+        if (skip != Facet.PRICE && filter.minPrice != null) {
+            matches = priceAtLeast(matches, cents(filter.minPrice, RoundingMode.CEILING));
+        }
+        if (skip != Facet.PRICE && filter.maxPrice != null) {
+            matches = priceAtMost(matches, cents(filter.maxPrice, RoundingMode.FLOOR));
+        }
+        return matches;
+    }
+
+    private long count(RoaringBitmap base, RoaringBitmap facet) {
+        return base == live ? facet.getLongCardinality() : RoaringBitmap.andCardinality(base, facet);
+    }
+
+    private Map<Boolean, Long> split(RoaringBitmap base, RoaringBitmap flagged) {
+        long yes = count(base, flagged);
+        Map<Boolean, Long> counts = new LinkedHashMap<>();
+        counts.put(true, yes);
+        counts.put(false, base.getLongCardinality() - yes);
+        return counts;
+    }
+
+    /**
+     * Up to count matching rows following the cursor. A wide match set is read by walking the sort
+     * order and probing the bitmap; a narrow one is cheaper to collect and sort directly. Walking
+     * takes about count * live / matches steps and sorting about matches, so the cut-over is where
+     * those meet. A walk in price order starts and stops at the price bounds.
+     */
+    private List<Row> page(RoaringBitmap matches, Sort sort, Row after, int count, long low, long high) {
+        NavigableSet<Row> ordered = ordered(sort);
+        Comparator<? super Row> comparator = ordered.comparator();
+        long cardinality = matches.getLongCardinality();
+
+        if (cardinality * cardinality <= (long) count * live.getCardinality()) {
+            List<Row> collected = new ArrayList<>((int) cardinality);
+            matches.forEach((int ordinal) -> {
+                Row row = byOrdinal[ordinal];
+                if (after == null || comparator.compare(row, after) > 0) {
+                    collected.add(row);
+                }
+            });
+            collected.sort(comparator);
+            return collected.size() > count ? collected.subList(0, count) : collected;
+        }
+
+        NavigableSet<Row> walk = after == null ? ordered : ordered.tailSet(after, false);
+        if (sort == Sort.PRICE_ASC || sort == Sort.PRICE_DESC) {
+            Row start = sort == Sort.PRICE_ASC ? Row.probe(Long.MIN_VALUE, null, low) : Row.probe(Long.MAX_VALUE, null, high);
+            if (after == null || comparator.compare(start, after) > 0) {
+                walk = ordered.tailSet(start, true);
+            }
+        }
+
+        List<Row> page = new ArrayList<>(count);
+        for (Row row : walk) {
+            if (sort == Sort.PRICE_ASC && row.priceCents > high || sort == Sort.PRICE_DESC && row.priceCents < low) {
+                break;
+            }
+            if (matches.contains(row.ordinal)) {
+                page.add(row);
+                if (page.size() == count) {
+                    break;
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Candidates priced at or above the bound, comparing slices from the highest bit down
+     */
+    private RoaringBitmap priceAtLeast(RoaringBitmap candidates, long bound) {
+        if (bound <= 0) {
+            return candidates;
+        }
+        if (64 - Long.numberOfLeadingZeros(bound) > priceBits.length) {
+            return new RoaringBitmap();
+        }
+
+        RoaringBitmap greater = new RoaringBitmap();
+        RoaringBitmap equal = candidates.clone();
+        for (int bit = priceBits.length - 1; bit >= 0; bit--) {
+            if ((bound & (1L << bit)) != 0) {
+                equal.and(priceBits[bit]);
+            } else {
+                greater.or(RoaringBitmap.and(equal, priceBits[bit]));
+                equal.andNot(priceBits[bit]);
+            }
+        }
+        greater.or(equal);
+        return greater;
+    }
+
+    /**
+     * Candidates priced at or below the bound, comparing slices from the highest bit down
+     */
+    private RoaringBitmap priceAtMost(RoaringBitmap candidates, long bound) {
+        if (bound < 0) {
+            return new RoaringBitmap();
+        }
+        if (64 - Long.numberOfLeadingZeros(bound) > priceBits.length) {
+            return candidates;
+        }
+
+        RoaringBitmap less = new RoaringBitmap();
+        RoaringBitmap equal = candidates.clone();
+        for (int bit = priceBits.length - 1; bit >= 0; bit--) {
+            if ((bound & (1L << bit)) != 0) {
+                less.or(RoaringBitmap.andNot(equal, priceBits[bit]));
+                equal.and(priceBits[bit]);
+            } else {
+                equal.andNot(priceBits[bit]);
+            }
+        }
+        less.or(equal);
+        return less;
+    }
+
+    private NavigableSet<Row> ordered(Sort sort) {
+        switch (sort) {
+            case PRICE_ASC:
+                return byPrice;
+            case PRICE_DESC:
+                return byPrice.descendingSet();
+            case NEWEST:
+                return byId.descendingSet();
+            default:
+                return byName;
+        }
+    }
+
+    private void add(Product product) {
+        int ordinal;
+        if (freeOrdinals.isEmpty()) {
+            ordinal = nextOrdinal++;
+            if (ordinal == byOrdinal.length) {
+                byOrdinal = Arrays.copyOf(byOrdinal, ordinal * 2);
+            }
+        } else {
+            ordinal = freeOrdinals.first();
+            freeOrdinals.remove(ordinal);
+        }
+
+        Row row = new Row(product.getId(), ordinal, sortName(product.getName()), cents(product.getPrice(), RoundingMode.HALF_UP),
+                normalize(product.getCategory()), Boolean.TRUE.equals(product.getRequiresPrescription()),
+                product.getStock() != null && product.getStock() > 0);
+        rows.put(row.id, row);
+        byOrdinal[ordinal] = row;
+
+        live.add(ordinal);
+        if (row.prescription) {
+            prescription.add(ordinal);
+        }
+        if (row.inStock) {
+            inStock.add(ordinal);
+        }
+        categories.computeIfAbsent(row.category, c -> new RoaringBitmap()).add(ordinal);
+        categoryNames.putIfAbsent(row.category, product.getCategory() == null ? "" : product.getCategory().trim());
+        priceBuckets[bucket(row.priceCents)].add(ordinal);
+        int bits = 64 - Long.numberOfLeadingZeros(Math.max(row.priceCents, 0));
+        if (bits > priceBits.length) {
+            int old = priceBits.length;
+            priceBits = Arrays.copyOf(priceBits, bits);
+            for (int bit = old; bit < bits; bit++) {
+                priceBits[bit] = new RoaringBitmap();
+            }
+        }
+        for (int bit = 0; bit < bits; bit++) {
+            if ((row.priceCents & (1L << bit)) != 0) {
+                priceBits[bit].add(ordinal);
+            }
+        }
+        byName.add(row);
+        byPrice.add(row);
+        byId.add(row);
+    }
+
+    private void remove(Long productId) {
+        Row row = rows.remove(productId);
+        if (row == null) {
+            return;
+        }
+
+        int ordinal = row.ordinal;
+        live.remove(ordinal);
+        prescription.remove(ordinal);
+        inStock.remove(ordinal);
+        removeFrom(categories, row.category, ordinal);
+        if (!categories.containsKey(row.category)) {
+            categoryNames.remove(row.category);
+        }
+        priceBuckets[bucket(row.priceCents)].remove(ordinal);
+        for (RoaringBitmap slice : priceBits) {
+            slice.remove(ordinal);
+        }
+        byName.remove(row);
+        byPrice.remove(row);
+        byId.remove(row);
+        byOrdinal[ordinal] = null;
+        freeOrdinals.add(ordinal);
+    }
+
+    /**
+     * Bucket i holds prices from bound i - 1 (inclusive) up to bound i (exclusive)
+     */
+    private int bucket(long priceCents) {
+        int index = Arrays.binarySearch(bucketBounds, priceCents);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static void removeFrom(Map<String, RoaringBitmap> bitmaps, String key, int ordinal) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Cursors are the sort, the product ID and the sort value of the last row, base64url encoded
+     */
+    private static String encodeCursor(Row row, Sort sort) {
+        String value = sort == Sort.NAME ? row.name : String.valueOf(row.priceCents);
+        String raw = sort.name() + "\n" + row.id + "\n" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Row decodeCursor(String cursor, Sort sort) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\n", 3);
+            if (parts.length != 3 || !parts[0].equals(sort.name())) {
+                throw new IllegalArgumentException("Cursor does not belong to sort " + sort.name().toLowerCase(Locale.ROOT));
+            }
+            long id = Long.parseLong(parts[1]);
+            return sort == Sort.NAME
+                    ? Row.probe(id, parts[2], 0)
+                    : Row.probe(id, null, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    private static long cents(BigDecimal price, RoundingMode rounding) {
+        return price == null ? 0 : price.movePointRight(2).setScale(0, rounding).longValue();
+    }
+
+    private static String sortName(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT);
+    }
+
+    private static String normalize(String category) {
+        return category == null ? "" : category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Filters of a catalog query; every field left null is not applied
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Filter {
+        private final Collection<String> categories;
+        private final Boolean requiresPrescription;
+        private final Boolean inStock;
+        private final BigDecimal minPrice;
+        private final BigDecimal maxPrice;
+        private final long[] textMatches;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Result {
+        private final List<Long> ids;
+        private final String nextCursor;
+        private final long total;
+    }
+
+    private static class Row {
+        private final long id;
+        private final int ordinal;
+        private final String name;
+        private final long priceCents;
+        private final String category;
+        private final boolean prescription;
+        private final boolean inStock;
+
+        private Row(long id, int ordinal, String name, long priceCents, String category,
+                    boolean prescription, boolean inStock) {
+            this.id = id;
+            this.ordinal = ordinal;
+            this.name = name;
+            this.priceCents = priceCents;
+            this.category = category;
+            this.prescription = prescription;
+            this.inStock = inStock;
+        }
+
+        /**
+         * Search key that is not in the index, for positioning within a sort order
+         */
+        private static Row probe(long id, String name, long priceCents) {
+            return new Row(id, -1, name, priceCents, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.pharmacy.management.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * Published by ProductService whenever products are created, updated, deleted or change stock.
+ * Listeners re-read the products after commit; an ID that no longer resolves was deleted.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+    private final Set<Long> productIds;
+}
\ No newline at end of file
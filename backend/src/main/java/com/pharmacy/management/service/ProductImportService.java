@@ -0,0 +1,453 @@
+package com.pharmacy.management.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pharmacy.management.model.Product;
+import com.pharmacy.management.payload.ProductImportReport;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk upsert of products from CSV or JSON Lines.
+ * The input is read one row at a time and written in chunks, each chunk in its own transaction through a
+ * Hibernate StatelessSession, so nothing accumulates in a persistence context and memory stays flat
+ * whatever the input size. A row updates the product with its id, or else the product with the same name,
+ * and inserts a new product otherwise. An update writes description and imageUrl only when the row has them,
+ * so a catalog without those columns keeps the stored values. Rows that cannot be parsed or fail validation
+ * are reported by line and skipped; the rest of the import carries on.
+ */
+@Service
+public class ProductImportService {
+
+    public static final int CHUNK_SIZE = 1000;
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final List<String> REQUIRED_COLUMNS = List.of("name", "category", "price", "stock", "requiresprescription");
+    // Normalized field name and column of the fields an update leaves alone when the row does not have them
+    private static final Map<String, String> OPTIONAL_COLUMNS = Map.of("description", "description", "imageurl", "image_url");
+    private static final String UPDATE_REQUIRED_SQL =
+            "UPDATE products SET name = ?, category = ?, price = ?, stock = ?, requires_prescription = ?";
+
+    public enum Format {
+        CSV, JSONL;
+
+        public static Format fromContentType(String contentType) {
+            String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+            if (type.contains("csv")) {
+                return CSV;
+            }
+            if (type.contains("ndjson") || type.contains("jsonl")) {
+                return JSONL;
+            }
+            throw new IllegalArgumentException("Unsupported import content type: " + contentType);
+        }
+
+        public static Format fromFileName(String fileName) {
+            String name = fileName.toLowerCase(Locale.ROOT);
+            if (name.endsWith(".csv")) {
+                return CSV;
+            }
+            if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+                return JSONL;
+            }
+            throw new IllegalArgumentException("Cannot tell the import format of " + fileName + "; use .csv or .jsonl");
+        }
+    }
+
+    private final SessionFactory sessionFactory;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private volatile boolean applicationReady;
+
+    public ProductImportService(EntityManagerFactory entityManagerFactory, Validator validator,
+                                ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        applicationReady = true;
+    }
+
+    /**
+     * Import products from a stream, which is read to the end but not closed
+     * @param input CSV with a header row, or one JSON object per line; column and field names are
+     *              id, name, description, category, price, stock, imageUrl and requiresPrescription;
+     *              an update leaves description and imageUrl as they are when the row lacks them
+     * @param format Format of the input
+     * @return Row, insert, update and failure counts, with the first failures by line
+     * @throws IllegalArgumentException If a CSV header lacks a required column
+     */
+    public ProductImportReport importProducts(InputStream input, Format format) throws IOException {
+        Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8);
+        RowSource rows = format == Format.CSV ? new CsvRows(new CsvReader(reader)) : new JsonLines(new BufferedReader(reader));
+        Tally tally = new Tally();
+        List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.setJdbcBatchSize(CHUNK_SIZE);
+            while (true) {
+                Map<String, String> fields;
+                try {
+                    fields = rows.next();
+                } catch (IllegalArgumentException e) {
+                    tally.rowsRead++;
+                    tally.fail(rows.line(), e.getMessage());
+                    continue;
+                }
+                if (fields == null) {
+                    break;
+                }
+
+                tally.rowsRead++;
+                try {
+                    chunk.add(new ImportRow(rows.line(), toProduct(fields), optionalColumns(fields)));
+                } catch (IllegalArgumentException e) {
+                    tally.fail(rows.line(), e.getMessage());
+                }
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(session, chunk, tally);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(session, chunk, tally);
+            }
+        } finally {
+            // Imports run from the command line finish before anything is loaded, and the startup build picks them up
+            if (applicationReady && tally.inserted + tally.updated > 0) {
+                eventPublisher.publishEvent(new ProductsReloadedEvent());
+            }
+        }
+        tally.errors.sort(Comparator.comparingLong(ProductImportReport.RowError::getLine));
+        return new ProductImportReport(tally.rowsRead, tally.inserted, tally.updated, tally.failed, tally.errors);
+    }
+
+    /**
+     * Upsert one chunk in its own transaction; if the chunk fails to write, all of its rows are reported
+     */
+    private void writeChunk(StatelessSession session, List<ImportRow> chunk, Tally tally) {
+        Transaction transaction = session.beginTransaction();
+        List<ImportRow> accepted = new ArrayList<>(chunk.size());
+        try {
+            Set<Long> ids = new HashSet<>();
+            Set<String> names = new HashSet<>();
+            for (ImportRow row : chunk) {
+                if (row.product.getId() != null) {
+                    ids.add(row.product.getId());
+                } else {
+                    names.add(row.product.getName());
+                }
+            }
+            Set<Long> existingIds = ids.isEmpty() ? Set.of() : new HashSet<>(session
+                    .createQuery("SELECT p.id FROM Product p WHERE p.id IN :ids", Long.class)
+                    .setParameter("ids", ids)
+                    .getResultList());
+            Map<String, Long> idsByName = new HashMap<>();
+            if (!names.isEmpty()) {
+                session.createQuery("SELECT p.name, p.id FROM Product p WHERE p.name IN :names ORDER BY p.id", Object[].class)
+                        .setParameter("names", names)
+                        .getResultList()
+                        .forEach(match -> idsByName.putIfAbsent((String) match[0], (Long) match[1]));
+            }
+
+            // Later rows for the same product win, so each product is written once per chunk
+            Map<String, Product> inserts = new LinkedHashMap<>();
+            Map<Long, ImportRow> updates = new LinkedHashMap<>();
+            for (ImportRow row : chunk) {
+                Product product = row.product;
+                if (product.getId() != null && !existingIds.contains(product.getId())) {
+                    tally.fail(row.line, "Product not found with id: " + product.getId());
+                    continue;
+                }
+                if (product.getId() == null) {
+                    product.setId(idsByName.get(product.getName()));
+                }
+                if (product.getId() == null) {
+                    inserts.put(product.getName(), product);
+                } else {
+                    updates.put(product.getId(), row);
+                }
+                accepted.add(row);
+            }
+
+            inserts.values().forEach(session::insert);
+            update(session, updates.values());
+            transaction.commit();
+            tally.inserted += inserts.size();
+            tally.updated += updates.size();
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            logger.error("Product import chunk failed: {}", e.getMessage());
+            for (ImportRow row : accepted) {
+                tally.fail(row.line, "Not saved, the chunk holding this row failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Batch the updates, one statement per combination of optional columns present
+     */
+    private static void update(StatelessSession session, Collection<ImportRow> rows) {
+        Map<List<String>, List<Product>> byColumns = new LinkedHashMap<>();
+        for (ImportRow row : rows) {
+            byColumns.computeIfAbsent(row.optionalColumns, k -> new ArrayList<>()).add(row.product);
+        }
+
+        session.doWork(connection -> {
+            for (Map.Entry<List<String>, List<Product>> group : byColumns.entrySet()) {
+                List<String> columns = group.getKey();
+                String sql = UPDATE_REQUIRED_SQL +
+                        columns.stream().map(column -> ", " + column + " = ?").collect(Collectors.joining()) +
+                        " WHERE id = ?";
+                try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                    for (Product product : group.getValue()) {
+                        int index = 1;
+                        ps.setString(index++, product.getName());
+                        ps.setString(index++, product.getCategory());
+                        ps.setBigDecimal(index++, product.getPrice());
+                        ps.setInt(index++, product.getStock());
+                        ps.setBoolean(index++, product.getRequiresPrescription());
+                        if (columns.contains("description")) {
+                            ps.setString(index++, product.getDescription());
+                        }
+                        if (columns.contains("image_url")) {
+                            ps.setString(index++, product.getImageUrl());
+                        }
+                        ps.setLong(index, product.getId());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+            }
+        });
+    }
+
+    /**
+     * Optional columns the row has, in a fixed order; a present but empty value still counts, and clears the column
+     */
+    private static List<String> optionalColumns(Map<String, String> fields) {
+        return OPTIONAL_COLUMNS.entrySet().stream()
+                .filter(column -> fields.containsKey(column.getKey()))
+                .map(Map.Entry::getValue)
+                .sorted()
+                .toList();
+    }
+
+    private Product toProduct(Map<String, String> fields) {
+        Product product = new Product();
+        product.setId(parse(fields, "id", Long::valueOf, "a whole number"));
+        product.setName(text(fields, "name"));
+        product.setDescription(text(fields, "description"));
+        product.setCategory(text(fields, "category"));
+        product.setPrice(parse(fields, "price", BigDecimal::new, "a number"));
+        product.setStock(parse(fields, "stock", Integer::valueOf, "a whole number"));
+        product.setImageUrl(text(fields, "imageurl"));
+        product.setRequiresPrescription(parse(fields, "requiresprescription", ProductImportService::parseBoolean, "true or false"));
+
+        Set<ConstraintViolation<Product>> violations = validator.validate(product);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return product;
+    }
+
+    private static String text(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static <T> T parse(Map<String, String> fields, String name,
+                               Function<String, T> parser, String expected) {
+        String value = text(fields, name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(name + ": must be " + expected + ", got '" + value + "'");
+        }
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if (value.equalsIgnoreCase("true")) {
+            return true;
+        }
+        if (value.equalsIgnoreCase("false")) {
+            return false;
+        }
+        throw new IllegalArgumentException(value);
+    }
+
+    /**
+     * Column and field names match case-insensitively, with or without underscores
+     */
+    private static String normalize(String name) {
+        return name.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    private interface RowSource {
+        /**
+         * @return Fields of the next row by normalized name, or null at the end of the input
+         * @throws IllegalArgumentException If the row is malformed; reading can continue with the next row
+         */
+        Map<String, String> next() throws IOException;
+
+        long line();
+    }
+
+    private static class CsvRows implements RowSource {
+        private final CsvReader csv;
+        private final List<String> columns = new ArrayList<>();
+
+        private CsvRows(CsvReader csv) throws IOException {
+            this.csv = csv;
+            List<String> header = csv.next();
+            if (header != null) {
+                header.forEach(column -> columns.add(normalize(column)));
+            }
+            List<String> missing = REQUIRED_COLUMNS.stream().filter(column -> !columns.contains(column)).toList();
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("CSV header is missing columns: " + String.join(", ", missing));
+            }
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            List<String> values = csv.next();
+            if (values == null) {
+                return null;
+            }
+            if (values.size() != columns.size()) {
+                throw new IllegalArgumentException("Expected " + columns.size() + " columns, found " + values.size());
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < values.size(); i++) {
+                fields.put(columns.get(i), values.get(i));
+            }
+            return fields;
+        }
+
+        @Override
+        public long line() {
+            return csv.getLine();
+        }
+    }
+
+    private class JsonLines implements RowSource {
+        private final BufferedReader reader;
+        private long line;
+
+        private JsonLines(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                line++;
+            } while (text != null && text.isBlank());
+            if (text == null) {
+                return null;
+            }
+
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(text);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+            }
+            if (!node.isObject()) {
+                throw new IllegalArgumentException("Expected a JSON object");
+            }
+
+            Map<String, String> fields = new HashMap<>();
+            for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = it.next();
+                JsonNode value = field.getValue();
+                fields.put(normalize(field.getKey()),
+                        value.isNull() ? null : value.isValueNode() ? value.asText() : value.toString());
+            }
+            return fields;
+        }
+
+        @Override
+        public long line() {
+            return line;
+        }
+    }
+
+    private static class ImportRow {
+        private final long line;
+        private final Product product;
+        private final List<String> optionalColumns;
+
+        private ImportRow(long line, Product product, List<String> optionalColumns) {
+            this.line = line;
+            this.product = product;
+            this.optionalColumns = optionalColumns;
+        }
+    }
+
+    private static class Tally {
+        private long rowsRead;
+        private long inserted;
+        private long updated;
+        private long failed;
+        private final List<ProductImportReport.RowError> errors = new ArrayList<>();
+
+        private void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ProductImportReport.RowError(line, message));
+            }
+        }
+    }
+}
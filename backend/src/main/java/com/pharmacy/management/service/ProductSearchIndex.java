@@ -0,0 +1,550 @@
+package com.pharmacy.management.service;
+
+import com.pharmacy.management.model.Product;
+import com.pharmacy.management.repository.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name, category and description.
+ * Each indexed product gets an int ordinal, and every term keeps a posting list of
+ * (ordinal, field weight) pairs in primitive arrays. Terms are also indexed by their trigrams,
+ * so a query token can match inside a term ("cillin" finds "amoxicillin").
+ * Hits are ranked by field weight times match quality (exact term, then prefix, then substring),
+ * ties going to the lower product ID.
+ *
+ * In fuzzy mode a token also matches name terms within a small edit distance, found by running
+ * its Levenshtein automaton over the sorted name terms. A product ranks first by how many tokens
+ * it matched without typos, so exact, prefix and substring hits always come before fuzzy ones.
+ *
+ * Updates never rewrite posting lists: a product whose text changed is retired and re-added under
+ * a new ordinal, and retired ordinals are skipped until the index is compacted. Price and stock
+ * changes, such as every order placed, leave the postings alone.
+ * The index is built once the application is ready and kept current from ProductChangedEvent.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final int EXACT_MATCH = 4;
+    private static final int PREFIX_MATCH = 2;
+    private static final int SUBSTRING_MATCH = 1;
+    private static final int FUZZY_MATCH = 1;
+
+    // A token's best match is kept as (non-fuzzy flag, score) so any non-fuzzy match beats any fuzzy one
+    private static final int NON_FUZZY = 1 << 16;
+    private static final int SCORE_MASK = NON_FUZZY - 1;
+
+    // Shortest token that may match with one edit, and with two
+    private static final int ONE_EDIT_LENGTH = 4;
+    private static final int TWO_EDIT_LENGTH = 8;
+
+    private static final int MIN_COMPACTION_GARBAGE = 1024;
+
+    // Ranking packs (non-fuzzy token count, score, product ID) into one long; product IDs must fit in 40 bits
+    private static final int ID_BITS = 40;
+    private static final long ID_MASK = (1L << ID_BITS) - 1;
+    private static final int SCORE_BITS = 16;
+    private static final int MAX_RANKED_TOKENS = 127;
+
+    private final ProductRepository productRepository;
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private Product[] documents = new Product[1024];
+    private long[] ids = new long[1024];
+    private int nextOrdinal;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<String, Set<String>> trigramTerms = new HashMap<>();
+    private final NavigableSet<String> vocabulary = new TreeSet<>();
+    private final FuzzyTermSet nameTerms = new FuzzyTermSet();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener({ApplicationReadyEvent.class, ProductsReloadedEvent.class})
+    public void rebuild() {
+        List<Product> products = productRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            reset(products);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        List<Product> products = productRepository.findStoredByIdIn(event.getProductIds());
+        update(event.getProductIds(), products);
+    }
+
+    /**
+     * Replace the indexed state of the given IDs; IDs without a matching product are removed.
+     * Products whose name, category and description are unchanged keep their ordinal and postings.
+     */
+    public void update(Collection<Long> productIds, Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> unchanged = new HashSet<>();
+            for (Product product : products) {
+                Integer ordinal = ordinals.get(product.getId());
+                if (ordinal != null && sameText(documents[ordinal], product)) {
+                    // Price and stock changes leave the postings as they are
+                    documents[ordinal] = product;
+                    unchanged.add(product.getId());
+                }
+            }
+            for (Long productId : productIds) {
+                if (!unchanged.contains(productId)) {
+                    retire(productId);
+                }
+            }
+            for (Product product : products) {
+                if (!unchanged.contains(product.getId())) {
+                    add(product);
+                }
+            }
+            if (nextOrdinal - ordinals.size() > Math.max(MIN_COMPACTION_GARBAGE, ordinals.size())) {
+                reset(liveDocuments());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find products matching every token of the query
+     * @param query Free text
+     * @param fuzzy Whether tokens may also match name terms with typos: one edit from 4 characters, two from 8
+     * @param pageable Page to return; only the top offset + size hits are ever sorted
+     * @return Page of product IDs, best match first
+     */
+    public Page<Long> search(String query, boolean fuzzy, Pageable pageable) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        lock.readLock().lock();
+        try {
+            Scratch s = scratch.get();
+            s.ensureCapacity(nextOrdinal);
+            try {
+                if (!scoreTokens(tokens, fuzzy, s)) {
+                    return Page.empty(pageable);
+                }
+                return collectPage(s, tokens.size(), pageable);
+            } finally {
+                s.clear();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Every product matching all tokens of the query, unranked
+     * @param query Free text
+     * @param fuzzy Whether tokens may also match name terms with typos
+     * @return Matching product IDs in no particular order
+     */
+    public long[] matchingIds(String query, boolean fuzzy) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return new long[0];
+        }
+
+        lock.readLock().lock();
+        try {
+            Scratch s = scratch.get();
+            s.ensureCapacity(nextOrdinal);
+            try {
+                if (!scoreTokens(tokens, fuzzy, s)) {
+                    return new long[0];
+                }
+                long[] matches = new long[s.candidates.size];
+                int count = 0;
+                for (int i = 0; i < s.candidates.size; i++) {
+                    int ordinal = s.candidates.values[i];
+                    if (s.matched[ordinal] == tokens.size()) {
+                        matches[count++] = ids[ordinal];
+                    }
+                }
+                return Arrays.copyOf(matches, count);
+            } finally {
+                s.clear();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Score every token in turn, stopping early once no product is left
+     * @return Whether any product matched every token
+     */
+    private boolean scoreTokens(List<String> tokens, boolean fuzzy, Scratch s) {
+        for (int t = 0; t < tokens.size(); t++) {
+            scoreToken(tokens.get(t), t, fuzzy, s);
+            if (s.touched.size == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Score one query token. A product's token score is its best matching term; only products
+     * that matched every earlier token are considered, so the candidate set only shrinks.
+     */
+    private void scoreToken(String token, int tokenIndex, boolean fuzzy, Scratch s) {
+        s.touched.size = 0;
+        Set<String> terms = matchingTerms(token);
+        for (String term : terms) {
+            int quality = term.equals(token) ? EXACT_MATCH : term.startsWith(token) ? PREFIX_MATCH : SUBSTRING_MATCH;
+            scoreTerm(term, quality | NON_FUZZY, tokenIndex, s);
+        }
+
+        int maxEdits = token.length() >= TWO_EDIT_LENGTH ? 2 : token.length() >= ONE_EDIT_LENGTH ? 1 : 0;
+        if (fuzzy && maxEdits > 0) {
+            List<String> similar = new ArrayList<>();
+            nameTerms.search(token, maxEdits, similar);
+            for (String term : similar) {
+                if (!terms.contains(term)) {
+                    scoreTerm(term, FUZZY_MATCH, tokenIndex, s);
+                }
+            }
+        }
+
+        for (int i = 0; i < s.touched.size; i++) {
+            int ordinal = s.touched.values[i];
+            s.total[ordinal] += s.tokenScore[ordinal] & SCORE_MASK;
+            if ((s.tokenScore[ordinal] & NON_FUZZY) != 0) {
+                s.exactTokens[ordinal]++;
+            }
+            s.matched[ordinal] = tokenIndex + 1;
+            s.tokenScore[ordinal] = 0;
+        }
+
+        // Later tokens only touch products the first token matched, so its hit list covers every
+        // ordinal that has to be ranked and cleared afterwards
+        if (tokenIndex == 0) {
+            s.candidates.copyFrom(s.touched);
+        }
+    }
+
+    /**
+     * Keep each candidate's best match for the current token
+     * @param quality Match quality, with NON_FUZZY set unless the term was reached through a typo
+     */
+    private void scoreTerm(String term, int quality, int tokenIndex, Scratch s) {
+        Postings list = postings.get(term);
+        int flag = quality & NON_FUZZY;
+        int factor = quality & SCORE_MASK;
+        for (int i = 0; i < list.size; i++) {
+            int ordinal = list.ordinals[i];
+            if (documents[ordinal] == null || s.matched[ordinal] != tokenIndex) {
+                continue;
+            }
+            int score = flag | list.weights[i] * factor;
+            if (s.tokenScore[ordinal] == 0) {
+                s.touched.add(ordinal);
+            }
+            if (score > s.tokenScore[ordinal]) {
+                s.tokenScore[ordinal] = score;
+            }
+        }
+    }
+
+    /**
+     * Rank hits by tokens matched without typos, then score, then lower product ID, keeping the best offset + size in a
+     * primitive min-heap. Each hit is packed into one long so ranking never boxes or compares strings.
+     */
+    private Page<Long> collectPage(Scratch s, int tokenCount, Pageable pageable) {
+        int wanted = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), s.candidates.size);
+        long[] heap = new long[Math.max(wanted, 1)];
+        int heapSize = 0;
+        int hits = 0;
+        for (int i = 0; i < s.candidates.size; i++) {
+            int ordinal = s.candidates.values[i];
+            if (s.matched[ordinal] != tokenCount) {
+                continue;
+            }
+            hits++;
+            long key = ((long) Math.min(s.exactTokens[ordinal], MAX_RANKED_TOKENS) << (ID_BITS + SCORE_BITS))
+                    | ((long) Math.min(s.total[ordinal], SCORE_MASK) << ID_BITS)
+                    | (ID_MASK - ids[ordinal]);
+            if (heapSize < wanted) {
+                heap[heapSize] = key;
+                siftUp(heap, heapSize++);
+            } else if (wanted > 0 && key > heap[0]) {
+                heap[0] = key;
+                siftDown(heap, heapSize);
+            }
+        }
+
+        Arrays.sort(heap, 0, heapSize);
+        List<Long> page = new ArrayList<>();
+        for (int i = heapSize - 1 - (int) Math.min(pageable.getOffset(), heapSize); i >= 0; i--) {
+            page.add(ID_MASK - (heap[i] & ID_MASK));
+        }
+        return new PageImpl<>(page, pageable, hits);
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        long key = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = key;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        long key = heap[0];
+        int index = 0;
+        int child;
+        while ((child = 2 * index + 1) < size) {
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (key <= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = key;
+    }
+
+    private Set<String> matchingTerms(String token) {
+        if (token.length() < 3) {
+            return vocabulary.subSet(token, true, token + Character.MAX_VALUE, false);
+        }
+
+        Set<String> candidates = null;
+        for (String trigram : trigrams(token)) {
+            Set<String> terms = trigramTerms.get(trigram);
+            if (terms == null) {
+                return Set.of();
+            }
+            if (candidates == null) {
+                candidates = new HashSet<>(terms);
+            } else {
+                candidates.retainAll(terms);
+            }
+        }
+        candidates.removeIf(term -> !term.contains(token));
+        return candidates;
+    }
+
+    private void reset(Collection<Product> products) {
+        ordinals.clear();
+        documents = new Product[Math.max(1024, products.size() * 2)];
+        ids = new long[documents.length];
+        nextOrdinal = 0;
+        postings.clear();
+        trigramTerms.clear();
+        vocabulary.clear();
+        nameTerms.clear();
+        products.forEach(this::add);
+    }
+
+    private List<Product> liveDocuments() {
+        List<Product> live = new ArrayList<>(ordinals.size());
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (documents[ordinal] != null) {
+                live.add(documents[ordinal]);
+            }
+        }
+        return live;
+    }
+
+    private static boolean sameText(Product indexed, Product product) {
+        return Objects.equals(indexed.getName(), product.getName())
+                && Objects.equals(indexed.getCategory(), product.getCategory())
+                && Objects.equals(indexed.getDescription(), product.getDescription());
+    }
+
+    private void add(Product product) {
+        retire(product.getId());
+
+        int ordinal = nextOrdinal++;
+        if (ordinal == documents.length) {
+            documents = Arrays.copyOf(documents, ordinal * 2);
+            ids = Arrays.copyOf(ids, ordinal * 2);
+        }
+        documents[ordinal] = product;
+        ids[ordinal] = product.getId();
+        ordinals.put(product.getId(), ordinal);
+
+        Map<String, Integer> termWeights = new HashMap<>();
+        addField(termWeights, product.getName(), NAME_WEIGHT);
+        addField(termWeights, product.getCategory(), CATEGORY_WEIGHT);
+        addField(termWeights, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        termWeights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> {
+            vocabulary.add(t);
+            for (String trigram : trigrams(t)) {
+                trigramTerms.computeIfAbsent(trigram, g -> new HashSet<>()).add(t);
+            }
+            return new Postings();
+        }).add(ordinal, weight));
+
+        for (String term : tokenize(product.getName())) {
+            if (term.length() >= ONE_EDIT_LENGTH) {
+                nameTerms.add(term);
+            }
+        }
+    }
+
+    private void retire(Long productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal != null) {
+            documents[ordinal] = null;
+        }
+    }
+
+    private static void addField(Map<String, Integer> termWeights, String text, int weight) {
+        for (String term : new HashSet<>(tokenize(text))) {
+            termWeights.merge(term, weight, Integer::sum);
+        }
+    }
+
+    private static Set<String> trigrams(String term) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            trigrams.add(term.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static class Postings {
+        private int[] ordinals = new int[4];
+        private byte[] weights = new byte[4];
+        private int size;
+
+        private void add(int ordinal, int weight) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ordinals[size] = ordinal;
+            weights[size] = (byte) weight;
+            size++;
+        }
+    }
+
+    private static class IntList {
+        private int[] values = new int[64];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private void copyFrom(IntList other) {
+            if (values.length < other.size) {
+                values = new int[other.values.length];
+            }
+            System.arraycopy(other.values, 0, values, 0, other.size);
+            size = other.size;
+        }
+    }
+
+    /**
+     * Per-thread score arrays indexed by ordinal, reused across queries and cleared after each one
+     */
+    private static class Scratch {
+        private int[] total = new int[0];
+        private int[] matched = new int[0];
+        private int[] tokenScore = new int[0];
+        private int[] exactTokens = new int[0];
+        private final IntList touched = new IntList();
+        private final IntList candidates = new IntList();
+
+        private void ensureCapacity(int capacity) {
+            if (total.length < capacity) {
+                int length = Math.max(capacity, total.length * 2);
+                total = new int[length];
+                matched = new int[length];
+                tokenScore = new int[length];
+                exactTokens = new int[length];
+            }
+        }
+
+        private void clear() {
+            for (int i = 0; i < candidates.size; i++) {
+                int ordinal = candidates.values[i];
+                total[ordinal] = 0;
+                matched[ordinal] = 0;
+                exactTokens[ordinal] = 0;
+            }
+            candidates.size = 0;
+            touched.size = 0;
+        }
+    }
+}
\ No newline at end of file
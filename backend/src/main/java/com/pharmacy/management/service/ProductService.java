@@ -1,49 +1,188 @@
 package com.pharmacy.management.service;
 
 import com.pharmacy.management.model.Product;
+import com.pharmacy.management.payload.CacheStatsResponse;
+import com.pharmacy.management.payload.CatalogPageResponse;
+import com.pharmacy.management.payload.CatalogQueryRequest;
+import com.pharmacy.management.payload.FacetCountsResponse;
+import com.pharmacy.management.payload.ProductBatchResponse;
+import com.pharmacy.management.payload.ProductPatchRequest;
+import com.pharmacy.management.payload.ProductPatchResponse;
+import com.pharmacy.management.payload.ProductSummary;
+import com.pharmacy.management.payload.SuggestionResponse;
 import com.pharmacy.management.repository.ProductRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
+    public static final int MAX_BATCH_SIZE = 500;
+
     private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggester productSuggester;
+    private final ProductCatalogIndex productCatalogIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SingleFlight<String, Page<Product>> searches = new SingleFlight<>();
 
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    public List<ProductSummary> getAllProducts() {
+        return productCache.getList("all", productRepository::findAllSummaries);
     }
 
     public Product getProductById(Long id) {
-        return productRepository.findById(id)
+        return productCache.getProduct(id, productRepository::findById)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
     }
 
-    public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category);
+    public List<SuggestionResponse> suggestProducts(String prefix, int limit) {
+        return productSuggester.suggest(prefix, limit);
+    }
+
+    public CacheStatsResponse getCacheStats() {
+        CacheStatsResponse stats = productCache.getStats();
+        stats.getCoalescedLoads().put("search", searches.getStats());
+        return stats;
+    }
+
+    /**
+     * Load several products, reading the ones not yet cached with a single query
+     * @param ids Product IDs, duplicates allowed
+     * @return Products keyed by ID in the order the IDs were given; missing IDs have no entry
+     */
+    public Map<Long, Product> getProductsByIds(Collection<Long> ids) {
+        Map<Long, Optional<Product>> found = productCache.getProducts(new LinkedHashSet<>(ids), this::loadProducts);
+
+        Map<Long, Product> ordered = new LinkedHashMap<>();
+        for (Long id : ids) {
+            Optional<Product> product = found.get(id);
+            if (product != null && product.isPresent()) {
+                ordered.put(id, product.get());
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Load several products from the database in the caller's transaction, without the shared cache,
+     * e.g. to price an order right after taking its stock
+     * @param ids Product IDs
+     * @return Products keyed by ID; missing IDs have no entry
+     */
+    public Map<Long, Product> loadProductsByIds(Collection<Long> ids) {
+        return productRepository.findAllById(List.copyOf(new LinkedHashSet<>(ids))).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    /**
+     * Look up a batch of products for a client in one call, from the cache and one IN query for the rest
+     * @param ids Product IDs in the order the client wants them back; repeats are answered once
+     * @return One item per distinct ID in request order, flagged as not found when the product does not exist
+     */
+    public ProductBatchResponse getProductBatch(List<Long> ids) {
+        Set<Long> distinct = ids.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (distinct.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " product IDs can be requested at once");
+        }
+
+        Map<Long, Product> found = getProductsByIds(distinct);
+        List<ProductBatchResponse.Item> items = new ArrayList<>(distinct.size());
+        for (Long id : distinct) {
+            Product product = found.get(id);
+            items.add(new ProductBatchResponse.Item(id, product != null, product));
+        }
+        return new ProductBatchResponse(items);
+    }
+
+    public List<ProductSummary> getProductsByCategory(String category) {
+        return productCache.getList("category:" + category, () -> productRepository.findSummariesByCategory(category));
+    }
+
+    /**
+     * Full-text search over name, category and description, served from the in-memory index
+     * @param query Free text; every word must match a word in the product, in whole or in part
+     * @param fuzzy Whether words may also match product names with a typo or two
+     * @param pageable Page of results to return
+     * @return Products ordered by relevance; identical concurrent searches share one result
+     */
+    public Page<Product> searchProducts(String query, boolean fuzzy, Pageable pageable) {
+        String key = fuzzy + ":" + pageable.getOffset() + ":" + pageable.getPageSize() + ":" + query;
+        return searches.load(key, () -> {
+            Page<Long> ids = productSearchIndex.search(query, fuzzy, pageable);
+            Map<Long, Product> products = getProductsByIds(ids.getContent());
+            return ids.map(products::get);
+        });
+    }
+
+    /**
+     * One page of the catalog filtered, sorted and positioned as requested, served from the in-memory bitmap index
+     * @param query Filters, sort, cursor and page size; the page size must already be clamped
+     * @return Products for the page, the cursor of the next page if there is one, and the number of matches
+     */
+    public CatalogPageResponse queryCatalog(CatalogQueryRequest query) {
+        ProductCatalogIndex.Sort sort;
+        try {
+            sort = ProductCatalogIndex.Sort.valueOf(query.getSort().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort: " + query.getSort() +
+                    " (expected name, price_asc, price_desc or newest)");
+        }
+        ProductCatalogIndex.Result result = productCatalogIndex.query(catalogFilter(query), sort,
+                StringUtils.hasText(query.getCursor()) ? query.getCursor() : null, query.getLimit());
+
+        Map<Long, Product> products = getProductsByIds(result.getIds());
+        return new CatalogPageResponse(new ArrayList<>(products.values()), result.getNextCursor(), result.getTotal());
     }
 
-    public List<Product> searchProductsByName(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name);
+    /**
+     * Match counts per category, prescription flag, stock state and price bucket for the given filters
+     * @param query Active filters; sort, cursor and limit are ignored
+     * @return Counts per facet value, each computed without that facet's own filter
+     */
+    public FacetCountsResponse getCatalogFacets(CatalogQueryRequest query) {
+        return productCatalogIndex.facets(catalogFilter(query));
     }
 
-    public List<Product> getProductsByPrescriptionRequirement(Boolean requiresPrescription) {
-        return productRepository.findByRequiresPrescription(requiresPrescription);
+    public List<ProductSummary> getProductsByPrescriptionRequirement(Boolean requiresPrescription) {
+        return productCache.getList("prescription:" + requiresPrescription,
+                () -> productRepository.findSummariesByRequiresPrescription(requiresPrescription));
     }
 
     @Transactional
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        publishChange(Set.of(saved.getId()));
+        return saved;
     }
 
     @Transactional
     public Product updateProduct(Long id, Product productDetails) {
-        Product product = getProductById(id);
+        Product product = loadProduct(id);
         
         product.setName(productDetails.getName());
         product.setDescription(productDetails.getDescription());
@@ -53,7 +192,40 @@ public class ProductService {
         product.setImageUrl(productDetails.getImageUrl());
         product.setRequiresPrescription(productDetails.getRequiresPrescription());
         
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        publishChange(Set.of(id));
+        return saved;
+    }
+
+    /**
+     * Change price, stock and prescription flag of many products at once, writing only the fields each update sets.
+     * All updates apply in one transaction, and caches and indexes catch up once for the whole request.
+     * @param patches Partial updates, at most one per product ID
+     * @return Number of products updated and the IDs that matched no product
+     */
+    @Transactional
+    public ProductPatchResponse patchProducts(List<ProductPatchRequest.ProductPatch> patches) {
+        Set<Long> ids = new HashSet<>();
+        for (ProductPatchRequest.ProductPatch patch : patches) {
+            if (!ids.add(patch.getId())) {
+                throw new IllegalArgumentException("Product " + patch.getId() + " is listed more than once");
+            }
+            if (patch.getPrice() == null && patch.getStock() == null && patch.getRequiresPrescription() == null) {
+                throw new IllegalArgumentException("Update for product " + patch.getId() + " sets no fields");
+            }
+        }
+
+        Set<Long> missing = productRepository.patchProducts(patches);
+        ids.removeAll(missing);
+        if (!ids.isEmpty()) {
+            publishChange(ids);
+        }
+
+        List<Long> notFound = patches.stream()
+                .map(ProductPatchRequest.ProductPatch::getId)
+                .filter(missing::contains)
+                .collect(Collectors.toList());
+        return new ProductPatchResponse(ids.size(), notFound);
     }
 
     @Transactional
@@ -62,17 +234,138 @@ public class ProductService {
             throw new EntityNotFoundException("Product not found with id: " + id);
         }
         productRepository.deleteById(id);
+        publishChange(Set.of(id));
     }
 
     @Transactional
     public Product updateStock(Long id, Integer quantity) {
-        Product product = getProductById(id);
-        
-        if (product.getStock() < quantity) {
-            throw new IllegalArgumentException("Insufficient stock for product: " + product.getName());
+        reserveStock(Map.of(id, quantity));
+        return loadProduct(id);
+    }
+
+    /**
+     * Take stock for several products at once with one guarded update per product.
+     * Nothing is taken if any product is missing or short, since the caller's transaction rolls back.
+     * @param quantities Quantity to take per product ID
+     */
+    @Transactional
+    public void reserveStock(Map<Long, Integer> quantities) {
+        Set<Long> rejected = productRepository.decrementStock(quantities);
+        if (rejected.isEmpty()) {
+            publishChange(quantities.keySet());
+            eventPublisher.publishEvent(new ProductsOrderedEvent(Map.copyOf(quantities)));
+            return;
         }
-        
-        product.setStock(product.getStock() - quantity);
-        return productRepository.save(product);
+        throw stockRejection(quantities, rejected);
+    }
+
+    /**
+     * Take stock for several orders in one transaction, each order all or nothing.
+     * Every product involved is locked in ID order first, so batches running side by side, and single
+     * orders, cannot deadlock on each other.
+     * @param orders Quantity to take per product ID, for each order
+     * @return For each order, null if its stock was taken, otherwise why it was not
+     */
+    @Transactional
+    public List<String> reserveStockForOrders(List<Map<Long, Integer>> orders) {
+        Set<Long> involved = new HashSet<>();
+        orders.forEach(quantities -> involved.addAll(quantities.keySet()));
+        productRepository.lockStock(involved);
+
+        List<String> rejections = new ArrayList<>(orders.size());
+        Map<Long, Integer> taken = new HashMap<>();
+        for (Map<Long, Integer> quantities : orders) {
+            Set<Long> rejected = productRepository.decrementStock(quantities);
+            if (rejected.isEmpty()) {
+                quantities.forEach((id, quantity) -> taken.merge(id, quantity, Integer::sum));
+                rejections.add(null);
+                continue;
+            }
+
+            // Give back what the order did get, so the rest of the batch sees the stock as it was
+            Map<Long, Integer> applied = new HashMap<>(quantities);
+            applied.keySet().removeAll(rejected);
+            if (!applied.isEmpty()) {
+                productRepository.incrementStock(applied);
+            }
+            rejections.add(stockRejection(quantities, rejected).getMessage());
+        }
+
+        if (!taken.isEmpty()) {
+            publishChange(taken.keySet());
+            eventPublisher.publishEvent(new ProductsOrderedEvent(Map.copyOf(taken)));
+        }
+        return rejections;
+    }
+
+    private RuntimeException stockRejection(Map<Long, Integer> quantities, Set<Long> rejected) {
+        // Preserve request order so the message lists products the way the client sent them
+        List<Long> rejectedIds = quantities.keySet().stream()
+                .filter(rejected::contains)
+                .collect(Collectors.toList());
+        Map<Long, Product> products = productRepository.findAllById(rejectedIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<String> missing = new ArrayList<>();
+        List<String> shortStocked = new ArrayList<>();
+        for (Long id : rejectedIds) {
+            Product product = products.get(id);
+            if (product == null) {
+                missing.add(String.valueOf(id));
+            } else {
+                shortStocked.add(product.getName() +
+                        " (Available: " + product.getStock() +
+                        ", Requested: " + quantities.get(id) + ")");
+            }
+        }
+
+        if (shortStocked.isEmpty()) {
+            return new EntityNotFoundException("Products not found with ids: " + String.join(", ", missing));
+        }
+
+        String message = "Not enough stock for products: " + String.join(", ", shortStocked);
+        if (!missing.isEmpty()) {
+            message += ". Products not found with ids: " + String.join(", ", missing);
+        }
+        return new IllegalStateException(message);
+    }
+
+    @Transactional
+    public void releaseStock(Map<Long, Integer> quantities) {
+        productRepository.incrementStock(quantities);
+        publishChange(quantities.keySet());
+        Map<Long, Integer> released = new HashMap<>();
+        quantities.forEach((id, quantity) -> released.put(id, -quantity));
+        eventPublisher.publishEvent(new ProductsOrderedEvent(Map.copyOf(released)));
+    }
+
+    private ProductCatalogIndex.Filter catalogFilter(CatalogQueryRequest query) {
+        long[] textMatches = StringUtils.hasText(query.getQ())
+                ? productSearchIndex.matchingIds(query.getQ(), query.isFuzzy())
+                : null;
+        return new ProductCatalogIndex.Filter(query.getCategory(), query.getRequiresPrescription(), query.getInStock(),
+                query.getMinPrice(), query.getMaxPrice(), textMatches);
+    }
+
+    private Map<Long, Optional<Product>> loadProducts(Set<? extends Long> ids) {
+        Map<Long, Optional<Product>> loaded = new HashMap<>();
+        ids.forEach(id -> loaded.put(id, Optional.empty()));
+        productRepository.findAllById(List.copyOf(ids)).forEach(product -> loaded.put(product.getId(), Optional.of(product)));
+        return loaded;
+    }
+
+    /**
+     * Load a managed copy for writing; cached instances are shared and must not be modified
+     */
+    private Product loadProduct(Long id) {
+        return productRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
+    }
+
+    /**
+     * Tell caches and indexes which products changed; listeners act once the transaction commits
+     */
+    private void publishChange(Set<Long> productIds) {
+        eventPublisher.publishEvent(new ProductChangedEvent(Set.copyOf(productIds)));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,398 @@
+package com.pharmacy.management.service;
+
+import com.pharmacy.management.model.Order;
+import com.pharmacy.management.model.Product;
+import com.pharmacy.management.payload.SuggestionResponse;
+import com.pharmacy.management.repository.OrderRepository;
+import com.pharmacy.management.repository.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Type-ahead completions for product names and categories from a prefix trie.
+ * Each suggestion is inserted under every word it contains, so "rel" completes "Pain Relief".
+ * Every trie node keeps its best completions precomputed, so a lookup is a walk down the
+ * prefix plus an array copy. A suggestion's weight is the units ordered of the products behind it.
+ * When a product or its sales change, only the trie paths of the affected suggestions are recomputed.
+ */
+@Component
+public class ProductSuggester {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final String NAME = "NAME";
+    private static final String CATEGORY = "CATEGORY";
+
+    private static final Comparator<Suggestion> RANKING = Comparator.<Suggestion>comparingLong(s -> s.weight).reversed()
+            .thenComparingInt(s -> s.text.length())
+            .thenComparing(s -> s.text);
+
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+
+    private final Node root = new Node();
+    private final Map<String, Suggestion> suggestions = new HashMap<>();
+    private final Map<Long, Entry> products = new HashMap<>();
+    private final Map<Long, Long> unitsOrdered = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean rebuilding;
+
+    public ProductSuggester(ProductRepository productRepository, OrderRepository orderRepository) {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    @EventListener({ApplicationReadyEvent.class, ProductsReloadedEvent.class})
+    public void rebuild() {
+        List<Product> all = productRepository.findAll();
+        List<Object[]> sales = orderRepository.sumQuantityByProductExcludingStatus(Order.OrderStatus.CANCELLED);
+
+        lock.writeLock().lock();
+        try {
+            // Paths are not refreshed one by one while rebuilding; the whole trie is refreshed once at the end
+            rebuilding = true;
+            unitsOrdered.clear();
+            for (Object[] row : sales) {
+                unitsOrdered.put((Long) row[0], ((Number) row[1]).longValue());
+            }
+            for (Long id : List.copyOf(products.keySet())) {
+                put(id, null);
+            }
+            all.forEach(product -> put(product.getId(), product));
+            refreshAll(root);
+        } finally {
+            rebuilding = false;
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Map<Long, Product> changed = new HashMap<>();
+        productRepository.findStoredByIdIn(event.getProductIds()).forEach(product -> changed.put(product.getId(), product));
+
+        lock.writeLock().lock();
+        try {
+            for (Long id : event.getProductIds()) {
+                put(id, changed.get(id));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsOrdered(ProductsOrderedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.getQuantities().forEach((id, quantity) -> {
+                Entry entry = products.get(id);
+                if (entry == null) {
+                    addUnitsOrdered(id, quantity);
+                    return;
+                }
+                Product product = entry.product;
+                put(id, null);
+                addUnitsOrdered(id, quantity);
+                put(id, product);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Negative quantities are units released by a cancelled order, which the seed query does not count either
+     */
+    private void addUnitsOrdered(Long id, int quantity) {
+        long units = unitsOrdered.getOrDefault(id, 0L) + quantity;
+        if (units > 0) {
+            unitsOrdered.put(id, units);
+        } else {
+            unitsOrdered.remove(id);
+        }
+    }
+
+    /**
+     * Best completions for what the user has typed so far
+     * @param prefix Typed text, matched case-insensitively against the start of any word
+     * @param limit Maximum number of completions, capped at MAX_SUGGESTIONS
+     * @return Completions, most ordered first
+     */
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+
+            int count = Math.min(Math.min(limit, MAX_SUGGESTIONS), node.top.length);
+            List<SuggestionResponse> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(new SuggestionResponse(node.top[i].text, node.top[i].type));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replace what a product contributes to the trie; a null product removes it
+     */
+    private void put(Long id, Product product) {
+        Entry previous = products.get(id);
+        if (previous != null && product != null && previous.weight == unitsOrdered.getOrDefault(id, 0L)
+                && Objects.equals(previous.product.getName(), product.getName())
+                && Objects.equals(previous.product.getCategory(), product.getCategory())) {
+            // Price and stock changes leave the trie as it is
+            products.put(id, new Entry(product, previous.weight, previous.name, previous.category));
+            return;
+        }
+
+        products.remove(id);
+        if (previous != null) {
+            adjust(previous.name, -1, -previous.weight);
+            adjust(previous.category, -1, -previous.weight);
+        }
+        if (product == null) {
+            return;
+        }
+
+        long weight = unitsOrdered.getOrDefault(id, 0L);
+        Entry entry = new Entry(product, weight,
+                suggestion(NAME, product.getName()),
+                suggestion(CATEGORY, product.getCategory()));
+        products.put(id, entry);
+        adjust(entry.name, 1, weight);
+        adjust(entry.category, 1, weight);
+    }
+
+    private Suggestion suggestion(String type, String text) {
+        if (text == null || normalize(text).isEmpty()) {
+            return null;
+        }
+        return suggestions.computeIfAbsent(type + ":" + normalize(text), k -> {
+            Suggestion suggestion = new Suggestion(text.trim(), type);
+            for (String key : keys(suggestion.text)) {
+                insert(key, suggestion);
+            }
+            return suggestion;
+        });
+    }
+
+    private void adjust(Suggestion suggestion, int refs, long weight) {
+        if (suggestion == null) {
+            return;
+        }
+
+        suggestion.refs += refs;
+        suggestion.weight += weight;
+        boolean removed = suggestion.refs == 0;
+        if (removed) {
+            suggestions.remove(suggestion.type + ":" + normalize(suggestion.text));
+        }
+
+        for (String key : keys(suggestion.text)) {
+            if (removed) {
+                remove(key, suggestion);
+            } else {
+                refreshPath(key);
+            }
+        }
+    }
+
+    private void insert(String key, Suggestion suggestion) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+        }
+        node.terminals.add(suggestion);
+        refreshPath(key);
+    }
+
+    private void remove(String key, Suggestion suggestion) {
+        Node[] path = path(key);
+        Node leaf = path[key.length()];
+        if (leaf == null) {
+            return;
+        }
+        leaf.terminals.remove(suggestion);
+
+        // Drop nodes that no longer lead anywhere, then recompute what is left of the path
+        for (int depth = key.length(); depth > 0; depth--) {
+            Node node = path[depth];
+            if (node.terminals.isEmpty() && node.labels.length == 0) {
+                path[depth - 1].removeChild(key.charAt(depth - 1));
+            } else {
+                break;
+            }
+        }
+        refreshPath(key);
+    }
+
+    /**
+     * Recompute the precomputed completions of every node on the path, deepest first
+     */
+    private void refreshPath(String key) {
+        if (rebuilding) {
+            return;
+        }
+        Node[] path = path(key);
+        for (int depth = key.length(); depth >= 0; depth--) {
+            if (path[depth] != null) {
+                path[depth].refreshTop();
+            }
+        }
+    }
+
+    private static void refreshAll(Node node) {
+        for (Node child : node.children) {
+            refreshAll(child);
+        }
+        node.refreshTop();
+    }
+
+    private Node[] path(String key) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length() && path[i] != null; i++) {
+            path[i + 1] = path[i].child(key.charAt(i));
+        }
+        return path;
+    }
+
+    /**
+     * Keys a suggestion is reachable under: its full text and the text from each later word on
+     */
+    private static List<String> keys(String text) {
+        String normalized = normalize(text);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                keys.add(normalized.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private static class Suggestion {
+        private final String text;
+        private final String type;
+        private long weight;
+        private int refs;
+
+        private Suggestion(String text, String type) {
+            this.text = text;
+            this.type = type;
+        }
+    }
+
+    private static class Entry {
+        private final Product product;
+        private final long weight;
+        private final Suggestion name;
+        private final Suggestion category;
+
+        private Entry(Product product, long weight, Suggestion name, Suggestion category) {
+            this.product = product;
+            this.weight = weight;
+            this.name = name;
+            this.category = category;
+        }
+    }
+
+    /**
+     * Trie node with children in a sorted char array and its best completions precomputed
+     */
+    private static class Node {
+        private static final Suggestion[] NONE = new Suggestion[0];
+
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private final List<Suggestion> terminals = new ArrayList<>(1);
+        private Suggestion[] top = NONE;
+
+        private Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrCreate(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) {
+                return children[index];
+            }
+
+            int insertAt = -index - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newLabels[insertAt] = label;
+            newChildren[insertAt] = new Node();
+            System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            labels = newLabels;
+            children = newChildren;
+            return newChildren[insertAt];
+        }
+
+        private void removeChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index < 0) {
+                return;
+            }
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        private void refreshTop() {
+            List<Suggestion> candidates = new ArrayList<>(terminals);
+            for (Node child : children) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            top = candidates.stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .sorted(RANKING)
+                    .limit(MAX_SUGGESTIONS)
+                    .toArray(Suggestion[]::new);
+        }
+    }
+}
\ No newline at end of file
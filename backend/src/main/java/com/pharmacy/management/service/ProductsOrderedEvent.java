@@ -0,0 +1,16 @@
+package com.pharmacy.management.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Published by ProductService when stock is reserved for an order, with the units reserved per product ID,
+ * and when a cancelled order's stock is released, with the released units as negative quantities.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductsOrderedEvent {
+    private final Map<Long, Integer> quantities;
+}
@@ -0,0 +1,8 @@
+package com.pharmacy.management.service;
+
+/**
+ * Published after a bulk change too large to follow product by product, such as an import.
+ * Listeners rebuild their state from the repository instead of re-reading individual IDs.
+ */
+public class ProductsReloadedEvent {
+}
@@ -0,0 +1,193 @@
+package com.pharmacy.management.service;
+
+import com.pharmacy.management.exception.InvalidTokenException;
+import com.pharmacy.management.model.RefreshToken;
+import com.pharmacy.management.model.User;
+import com.pharmacy.management.repository.RefreshTokenRepository;
+import com.pharmacy.management.repository.UserRepository;
+import com.pharmacy.management.security.JwtUtils;
+import com.pharmacy.management.security.TokenRevocationList;
+import com.pharmacy.management.security.VerifiedTokenCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Sign-ins as a short-lived access token (app.jwtExpirationMs) plus a refresh token that is exchanged for a new
+ * pair. Each exchange retires the refresh token presented; presenting a retired one again means it was copied, so
+ * the whole sign-in is revoked, access tokens included. Refresh tokens are random and stored only as digests; one
+ * lasts app.refreshTokenExpirationMs from when it was issued.
+ */
+@Service
+public class RefreshTokenService {
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final SecureRandom random = new SecureRandom();
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final JwtUtils jwtUtils;
+    private final TokenRevocationList revocationList;
+    private final VerifiedTokenCache tokenCache;
+    private final long refreshTokenExpirationMs;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository,
+                               JwtUtils jwtUtils, TokenRevocationList revocationList, VerifiedTokenCache tokenCache,
+                               @Value("${app.refreshTokenExpirationMs:1209600000}") long refreshTokenExpirationMs) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.jwtUtils = jwtUtils;
+        this.revocationList = revocationList;
+        this.tokenCache = tokenCache;
+        this.refreshTokenExpirationMs = refreshTokenExpirationMs;
+    }
+
+    /**
+     * Start a sign-in for a user whose credentials have been checked
+     */
+    @Transactional
+    public IssuedTokens issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchange a refresh token for a new access and refresh token. The user is loaded again, so the new
+     * access token carries their current email and role.
+     * @throws InvalidTokenException When the token is unknown, expired, revoked or was already exchanged
+     */
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public IssuedTokens rotate(String refreshToken) {
+        RefreshToken token = refreshTokenRepository.findByTokenHash(digest(refreshToken))
+                .orElseThrow(() -> new InvalidTokenException("Invalid refresh token"));
+        if (token.isRevoked() || token.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new InvalidTokenException("Refresh token expired or revoked; sign in again");
+        }
+        // Of concurrent exchanges of one token only the first marks it; the rest see it used
+        if (refreshTokenRepository.markUsed(token.getId(), LocalDateTime.now()) == 0) {
+            logger.warn("Refresh token reused for user {}; revoking its sign-in", token.getUserId());
+            revokeFamily(token.getFamily());
+            throw new InvalidTokenException("Refresh token already used; sign in again");
+        }
+        User user = userRepository.findById(token.getUserId()).orElse(null);
+        if (user == null) {
+            revokeFamily(token.getFamily());
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        return issue(user, token.getFamily());
+    }
+
+    /**
+     * End the sign-in a refresh token belongs to. Unknown tokens are ignored.
+     */
+    @Transactional
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.findByTokenHash(digest(refreshToken))
+                .ifPresent(token -> revokeFamily(token.getFamily()));
+    }
+
+    /**
+     * Revoke the access token a request was made with, which would otherwise stay valid until it expires
+     * @param tokenId ID (jti) of the token
+     */
+    public void revokeAccessToken(String tokenId) {
+        revocationList.revoke(tokenId, System.currentTimeMillis() + jwtUtils.getJwtExpirationMs());
+    }
+
+    /**
+     * End every sign-in of a user, e.g. when their credentials change or they are deleted
+     */
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        revokeTokens(refreshTokenRepository.findByUserIdAndRevokedFalse(userId));
+        tokenCache.invalidateUser(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.refreshTokenPurgeInterval:PT1H}")
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            logger.debug("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    private IssuedTokens issue(User user, String family) {
+        Date now = new Date();
+        String accessTokenId = UUID.randomUUID().toString();
+        String accessToken = jwtUtils.generateJwtToken(user, accessTokenId, now);
+
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime issuedAt = toDateTime(now.getTime());
+        refreshTokenRepository.save(new RefreshToken(null, user.getId(), digest(refreshToken), family, accessTokenId,
+                issuedAt, toDateTime(now.getTime() + refreshTokenExpirationMs), null, false));
+        return new IssuedTokens(accessToken, refreshToken, user);
+    }
+
+    private void revokeFamily(String family) {
+        revokeTokens(refreshTokenRepository.findByFamilyAndRevokedFalse(family));
+    }
+
+    private void revokeTokens(List<RefreshToken> tokens) {
+        for (RefreshToken token : tokens) {
+            token.setRevoked(true);
+            // The access token issued with it may still be live
+            long accessExpiresAt = token.getIssuedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    + jwtUtils.getJwtExpirationMs();
+            revocationList.revoke(token.getAccessTokenId(), accessExpiresAt);
+        }
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static class IssuedTokens {
+        private final String accessToken;
+        private final String refreshToken;
+        private final User user;
+
+        private IssuedTokens(String accessToken, String refreshToken, User user) {
+            this.accessToken = accessToken;
+            this.refreshToken = refreshToken;
+            this.user = user;
+        }
+
+        public String getAccessToken() {
+            return accessToken;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+
+        public User getUser() {
+            return user;
+        }
+    }
+}
@@ -1,13 +1,19 @@
 package com.pharmacy.management.service;
 
+import com.pharmacy.management.model.Order;
 import com.pharmacy.management.model.User;
+import com.pharmacy.management.payload.KeysetPage;
+import com.pharmacy.management.payload.UserSummary;
+import com.pharmacy.management.repository.OrderRepository;
 import com.pharmacy.management.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -16,9 +22,43 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final OrderRepository orderRepository;
+    private final KeysetPaging keysetPaging;
+    private final RefreshTokenService refreshTokenService;
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    /**
+     * A page of users without their orders, newest first; one statement however many orders they have
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param pageSize Requested page size, or null for the default
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<UserSummary> getAllUsers(String cursor, Integer pageSize) {
+        int size = keysetPaging.pageSize(pageSize);
+        return keysetPaging.page("users",
+                userRepository.findSummaryPage(keysetPaging.after("users", cursor), Limit.of(size + 1)), size,
+                UserSummary::getId);
+    }
+
+    /**
+     * Users with their orders, order items and products loaded, as they are serialized
+     * @param ids User IDs
+     * @return The users found, highest ID first
+     */
+    @Transactional(readOnly = true)
+    public List<User> getUsersWithOrders(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<User> users = userRepository.findWithOrdersByIdIn(ids);
+        List<Long> orderIds = users.stream()
+                .flatMap(user -> user.getOrders().stream())
+                .map(Order::getId)
+                .toList();
+        if (!orderIds.isEmpty()) {
+            // Initializes the items of the orders already attached to the users
+            orderRepository.findWithItemsByIdIn(orderIds);
+        }
+        return users;
     }
 
     public User getUserById(Long id) {
@@ -50,6 +90,7 @@ public class UserService {
     @Transactional
     public User updateUser(Long id, User userDetails) {
         User user = getUserById(id);
+        boolean credentialsChanged = false;
         
         user.setName(userDetails.getName());
         user.setContactNumber(userDetails.getContactNumber());
@@ -61,11 +102,18 @@ public class UserService {
                 throw new IllegalArgumentException("Email already in use");
             }
             user.setEmail(userDetails.getEmail());
+            credentialsChanged = true;
         }
         
         // Only update password if provided
         if (userDetails.getPassword() != null && !userDetails.getPassword().isEmpty()) {
             user.setPassword(passwordEncoder.encode(userDetails.getPassword()));
+            credentialsChanged = true;
+        }
+        
+        // Existing sign-ins were made with the old credentials
+        if (credentialsChanged) {
+            refreshTokenService.revokeAllForUser(id);
         }
         
         return userRepository.save(user);
@@ -77,5 +125,6 @@ public class UserService {
             throw new EntityNotFoundException("User not found with id: " + id);
         }
         userRepository.deleteById(id);
+        refreshTokenService.revokeAllForUser(id);
     }
 } 
\ No newline at end of file
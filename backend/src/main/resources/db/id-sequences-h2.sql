@@ -0,0 +1,27 @@
+-- Move an existing H2 database from IDENTITY columns to pooled id sequences.
+-- Run once against the database (e.g. from the H2 console) after upgrading.
+-- Keep INCREMENT BY equal to app.idAllocationSize.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE users_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM users);
+
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE products_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM products);
+
+CREATE SEQUENCE IF NOT EXISTS carts_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE carts_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM carts);
+
+CREATE SEQUENCE IF NOT EXISTS cart_items_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE cart_items_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM cart_items);
+
+CREATE SEQUENCE IF NOT EXISTS orders_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE orders_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM orders);
+
+CREATE SEQUENCE IF NOT EXISTS order_items_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE order_items_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM order_items);
+
+CREATE SEQUENCE IF NOT EXISTS prescriptions_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE prescriptions_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM prescriptions);
+
+CREATE SEQUENCE IF NOT EXISTS payments_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE payments_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM payments);
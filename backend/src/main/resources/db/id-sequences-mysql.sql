@@ -0,0 +1,35 @@
+-- Move an existing MySQL database from AUTO_INCREMENT ids to pooled id generation.
+-- MySQL has no sequences, so Hibernate keeps each sequence as a one-row table.
+-- Run once after upgrading; the AUTO_INCREMENT columns can stay as they are.
+
+CREATE TABLE IF NOT EXISTS users_seq (next_val BIGINT);
+DELETE FROM users_seq;
+INSERT INTO users_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM users;
+
+CREATE TABLE IF NOT EXISTS products_seq (next_val BIGINT);
+DELETE FROM products_seq;
+INSERT INTO products_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM products;
+
+CREATE TABLE IF NOT EXISTS carts_seq (next_val BIGINT);
+DELETE FROM carts_seq;
+INSERT INTO carts_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM carts;
+
+CREATE TABLE IF NOT EXISTS cart_items_seq (next_val BIGINT);
+DELETE FROM cart_items_seq;
+INSERT INTO cart_items_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM cart_items;
+
+CREATE TABLE IF NOT EXISTS orders_seq (next_val BIGINT);
+DELETE FROM orders_seq;
+INSERT INTO orders_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM orders;
+
+CREATE TABLE IF NOT EXISTS order_items_seq (next_val BIGINT);
+DELETE FROM order_items_seq;
+INSERT INTO order_items_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM order_items;
+
+CREATE TABLE IF NOT EXISTS prescriptions_seq (next_val BIGINT);
+DELETE FROM prescriptions_seq;
+INSERT INTO prescriptions_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM prescriptions;
+
+CREATE TABLE IF NOT EXISTS payments_seq (next_val BIGINT);
+DELETE FROM payments_seq;
+INSERT INTO payments_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM payments;
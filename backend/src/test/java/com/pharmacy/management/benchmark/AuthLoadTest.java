@@ -0,0 +1,96 @@
+package com.pharmacy.management.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Requests per second of authenticated GETs against a running backend. Signs in once, then sends the same
+ * Bearer token from several clients at once, each waiting for its response before sending the next.
+ * A path no controller maps measures the authentication cost alone.
+ * Arguments: base URL, path, requests, clients, email, password.
+ */
+public class AuthLoadTest {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        String path = args.length > 1 ? args[1] : "/api/orders/my-orders";
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+        int clients = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+        String email = args.length > 4 ? args[4] : "user@example.com";
+        String password = args.length > 5 ? args[5] : "user123";
+
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpResponse<String> login = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        Matcher token = TOKEN.matcher(login.body());
+        if (login.statusCode() != 200 || !token.find()) {
+            throw new IllegalStateException("Sign-in failed with " + login.statusCode() + ": " + login.body());
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token.group(1))
+                .GET()
+                .build();
+
+        // Warm up the server before measuring
+        run(http, request, Math.min(requests, 2000), clients);
+        long start = System.nanoTime();
+        Result result = run(http, request, requests, clients);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long[] latencies = result.latencies;
+        Arrays.sort(latencies);
+        System.out.printf("GET %s n=%d clients=%d %s %.0f req/s p50=%.1fms p99=%.1fms%n", path, requests, clients,
+                result.statuses, requests / seconds, latencies[latencies.length / 2] / 1e6,
+                latencies[(int) (latencies.length * 0.99)] / 1e6);
+    }
+
+    private static Result run(HttpClient http, HttpRequest request, int requests, int clients) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                futures.add(executor.submit(() -> {
+                    long start = System.nanoTime();
+                    HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                    return new long[]{response.statusCode(), System.nanoTime() - start};
+                }));
+            }
+            Result result = new Result(new long[requests]);
+            for (int i = 0; i < requests; i++) {
+                long[] outcome = futures.get(i).get();
+                result.statuses.merge((int) outcome[0], 1, Integer::sum);
+                result.latencies[i] = outcome[1];
+            }
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class Result {
+        private final Map<Integer, Integer> statuses = new TreeMap<>();
+        private final long[] latencies;
+
+        private Result(long[] latencies) {
+            this.latencies = latencies;
+        }
+    }
+}
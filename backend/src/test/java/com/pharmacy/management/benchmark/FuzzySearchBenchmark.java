@@ -0,0 +1,77 @@
+package com.pharmacy.management.benchmark;
+
+import com.pharmacy.management.model.Product;
+import com.pharmacy.management.service.ProductSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of fuzzy ProductSearchIndex.search as the catalog and the edit distance grow. The edit
+ * budget follows the query length (one edit from 4 characters, two from 8), so each query is a catalog stem of
+ * the matching length with that many letters replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class FuzzySearchBenchmark {
+
+    private static final int QUERIES = 32;
+
+    @Param({"10000", "100000", "1000000"})
+    public int products;
+
+    @Param({"1", "2"})
+    public int edits;
+
+    private ProductSearchIndex index;
+    private final List<String> queries = new ArrayList<>();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<Product> catalog = SyntheticCatalog.products(products);
+        index = new ProductSearchIndex(null);
+        index.update(catalog.stream().map(Product::getId).toList(), catalog);
+
+        for (String stem : SyntheticCatalog.STEMS) {
+            boolean fits = edits == 1 ? stem.length() >= 4 && stem.length() < 8 : stem.length() >= 8;
+            if (fits && queries.size() < QUERIES) {
+                queries.add(misspell(stem, edits));
+            }
+        }
+    }
+
+    @Benchmark
+    public Page<Long> search() {
+        String query = queries.get(next++ % queries.size());
+        return index.search(query, true, PageRequest.of(0, 20));
+    }
+
+    // Replace letters after the first, which is kept as typos rarely hit it
+    private static String misspell(String word, int edits) {
+        char[] letters = word.toCharArray();
+        for (int i = 0; i < edits; i++) {
+            int at = 1 + i * (letters.length - 1) / edits;
+            letters[at] = letters[at] == 'x' ? 'q' : 'x';
+        }
+        return new String(letters);
+    }
+}
@@ -0,0 +1,96 @@
+package com.pharmacy.management.benchmark;
+
+import com.pharmacy.management.model.User;
+import com.pharmacy.management.security.JwtAuthenticationFilter;
+import com.pharmacy.management.security.JwtUtils;
+import com.pharmacy.management.security.TokenRevocationList;
+import com.pharmacy.management.security.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request from its Bearer token.
+ * filter runs JwtAuthenticationFilter on a fresh request, which finds the token already verified in the cache.
+ * parse verifies the token with the shared parser, as on a cache miss.
+ * rebuildAndParseTwice replays what the filter did before: build the key and parser, then parse once to
+ * validate and again to read the subject. The user lookup it also made is left out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKeyWhichIsAtLeast32BytesLongForHS256";
+
+    private JwtAuthenticationFilter filter;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Revocations are only read here, so the list needs no repository or transaction manager
+        TokenRevocationList revocationList = new TokenRevocationList(null, null, 10000, 0.01);
+        JwtUtils jwtUtils = new JwtUtils(new VerifiedTokenCache(10000), revocationList, SECRET, 900000);
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("user@example.com");
+        user.setRole(User.Role.CUSTOMER);
+        token = jwtUtils.generateJwtToken(user, UUID.randomUUID().toString(), new Date());
+        parser = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8))).build();
+        filter();
+    }
+
+    @Benchmark
+    public Authentication filter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/my-orders");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Benchmark
+    public Claims parse() {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public String rebuildAndParseTwice() {
+        Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8))).build()
+                .parseClaimsJws(token);
+        return Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8))).build()
+                .parseClaimsJws(token).getBody().getSubject();
+    }
+}
@@ -0,0 +1,147 @@
+package com.pharmacy.management.benchmark;
+
+import com.pharmacy.management.PharmacyManagementApplication;
+import com.pharmacy.management.model.Order;
+import com.pharmacy.management.model.OrderItem;
+import com.pharmacy.management.model.Product;
+import com.pharmacy.management.model.User;
+import com.pharmacy.management.payload.OrderRequest;
+import com.pharmacy.management.repository.OrderRepository;
+import com.pharmacy.management.repository.ProductRepository;
+import com.pharmacy.management.repository.UserRepository;
+import com.pharmacy.management.service.OrderService;
+import com.pharmacy.management.service.ProductChangedEvent;
+import com.pharmacy.management.service.ProductsOrderedEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of placing one order as the number of lines grows, on in-memory H2 (profile "test").
+ * batched is OrderService.createOrder: one guarded batch decrement and one IN query for pricing.
+ * perLine replays the lookup the service used before: a SELECT per line, a stock check in Java and the
+ * whole product row written back, in one transaction. It publishes the same change events as the service, so
+ * both pay for keeping the search indexes current after commit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderCreationBenchmark {
+
+    @Param({"1", "10", "50", "200"})
+    public int lines;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private OrderRepository orderRepository;
+    private ProductRepository productRepository;
+    private TransactionTemplate transactionTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private User customer;
+    private OrderRequest request;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(PharmacyManagementApplication.class)
+                .profiles("test")
+                .properties("spring.main.web-application-type=none", "logging.level.root=WARN")
+                .run();
+        orderService = context.getBean(OrderService.class);
+        orderRepository = context.getBean(OrderRepository.class);
+        productRepository = context.getBean(ProductRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        eventPublisher = context;
+        customer = context.getBean(UserRepository.class).findByEmail("user@example.com").orElseThrow();
+
+        List<OrderRequest.OrderItemRequest> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            Product product = new Product();
+            product.setName("Benchmark product " + i);
+            product.setCategory("Benchmark");
+            product.setPrice(new BigDecimal("2.50"));
+            product.setStock(Integer.MAX_VALUE / 2);
+            product.setRequiresPrescription(false);
+
+            OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest();
+            item.setProductId(productRepository.save(product).getId());
+            item.setQuantity(1);
+            items.add(item);
+        }
+        request = new OrderRequest();
+        request.setShippingAddress("1 Benchmark Street");
+        request.setItems(items);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Order batched() {
+        return orderService.createOrder(request, customer);
+    }
+
+    @Benchmark
+    public Order perLine() {
+        return transactionTemplate.execute(status -> {
+            Order order = new Order();
+            order.setUser(customer);
+            order.setOrderDate(LocalDateTime.now());
+            order.setStatus(Order.OrderStatus.PENDING);
+            order.setShippingAddress(request.getShippingAddress());
+
+            List<OrderItem> orderItems = new ArrayList<>();
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            BigDecimal totalPrice = BigDecimal.ZERO;
+            for (OrderRequest.OrderItemRequest itemRequest : request.getItems()) {
+                Product product = productRepository.findById(itemRequest.getProductId()).orElseThrow();
+                if (product.getStock() < itemRequest.getQuantity()) {
+                    throw new IllegalStateException("Not enough stock for product: " + product.getName());
+                }
+                totalPrice = totalPrice.add(product.getPrice().multiply(BigDecimal.valueOf(itemRequest.getQuantity())));
+
+                OrderItem orderItem = new OrderItem();
+                orderItem.setOrder(order);
+                orderItem.setProduct(product);
+                orderItem.setQuantity(itemRequest.getQuantity());
+                orderItem.setPrice(product.getPrice());
+                orderItems.add(orderItem);
+
+                product.setStock(product.getStock() - itemRequest.getQuantity());
+                productRepository.save(product);
+                quantities.merge(product.getId(), itemRequest.getQuantity(), Integer::sum);
+            }
+            eventPublisher.publishEvent(new ProductChangedEvent(Set.copyOf(quantities.keySet())));
+            eventPublisher.publishEvent(new ProductsOrderedEvent(Map.copyOf(quantities)));
+            order.setTotalPrice(totalPrice);
+            order.setOrderItems(orderItems);
+            return orderRepository.save(order);
+        });
+    }
+}
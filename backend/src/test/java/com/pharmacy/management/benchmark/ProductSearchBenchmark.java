@@ -0,0 +1,62 @@
+package com.pharmacy.management.benchmark;
+
+import com.pharmacy.management.model.Product;
+import com.pharmacy.management.service.ProductSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of ProductSearchIndex.search over synthetic catalogs (see SyntheticCatalog).
+ * Each call runs the next query of a fixed mix of whole words, prefixes, substrings and multi-word queries,
+ * for pages 0 to 2 of 20 hits; JMH's sample mode reports p50 and p99.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ProductSearchBenchmark {
+
+    private static final String[] QUERIES = {
+            SyntheticCatalog.STEMS[0], SyntheticCatalog.STEMS[17], SyntheticCatalog.STEMS[123] + " syrup",
+            SyntheticCatalog.STEMS[42].substring(0, 4), SyntheticCatalog.STEMS[99].substring(2, 6),
+            "pain relief", "vitamin", "children fever", "allergy", "care", "stat", "gel", "night strength"
+    };
+    private static final int PAGES = 3;
+
+    @Param({"10000", "100000", "1000000"})
+    public int products;
+
+    private ProductSearchIndex index;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<Product> catalog = SyntheticCatalog.products(products);
+        index = new ProductSearchIndex(null);
+        index.update(catalog.stream().map(Product::getId).toList(), catalog);
+    }
+
+    @Benchmark
+    public Page<Long> search() {
+        int call = next++;
+        String query = QUERIES[call % QUERIES.length];
+        int page = (call / QUERIES.length) % PAGES;
+        return index.search(query, false, PageRequest.of(page, 20));
+    }
+}
@@ -0,0 +1,69 @@
+package com.pharmacy.management.benchmark;
+
+import com.pharmacy.management.model.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Reproducible product catalogs for the search benchmarks. Names are one of 400 drug-like stems, a strength
+ * and a form; descriptions take four words from a 20-word vocabulary, and there are 10 categories.
+ */
+final class SyntheticCatalog {
+
+    private static final String[] SYLLABLES = {
+            "am", "ox", "ci", "lin", "ibu", "pro", "fen", "par", "ace", "ta", "mol", "met", "for", "min",
+            "lor", "ata", "dine", "cet", "iri", "zine", "ome", "pra", "zole", "sim", "va", "stat", "ator"
+    };
+    private static final String[] FORMS = {"tablets", "capsules", "syrup", "cream", "drops", "gel"};
+    private static final String[] WORDS = {
+            "pain", "relief", "fast", "acting", "children", "adult", "daily", "dose", "allergy", "cold",
+            "fever", "infection", "skin", "care", "heart", "health", "vitamin", "support", "night", "strength"
+    };
+    private static final String[] CATEGORIES = {
+            "Pain Relief", "Antibiotics", "Allergy", "Cold and Flu", "Skin Care",
+            "Vitamins", "Heart Health", "Digestive Health", "Eye Care", "First Aid"
+    };
+
+    static final String[] STEMS = stems(400);
+
+    private SyntheticCatalog() {
+    }
+
+    static List<Product> products(int count) {
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setId((long) i + 1);
+            product.setName(STEMS[random.nextInt(STEMS.length)] + " " + 5 * (1 + random.nextInt(100)) + "mg "
+                    + FORMS[random.nextInt(FORMS.length)]);
+            product.setDescription(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " "
+                    + WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]);
+            product.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            product.setPrice(BigDecimal.valueOf(1 + random.nextInt(20000), 2));
+            product.setStock(random.nextInt(200));
+            product.setRequiresPrescription(random.nextInt(4) == 0);
+            products.add(product);
+        }
+        return products;
+    }
+
+    private static String[] stems(int count) {
+        Random random = new Random(7);
+        Set<String> stems = new LinkedHashSet<>();
+        while (stems.size() < count) {
+            StringBuilder stem = new StringBuilder();
+            int syllables = 2 + random.nextInt(3);
+            for (int i = 0; i < syllables; i++) {
+                stem.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            stems.add(stem.toString());
+        }
+        return stems.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,53 @@
+package com.pharmacy.management.security;
+
+import com.pharmacy.management.model.RevokedToken;
+import com.pharmacy.management.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TokenRevocationListTest {
+
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void tokenRevokedByAnotherInstanceIsRevokedHereWithoutFailingTheCaller() {
+        String tokenId = UUID.randomUUID().toString();
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        // Stored by another instance; not yet reloaded into this one
+        revokedTokenRepository.save(new RevokedToken(tokenId, LocalDateTime.now().plusMinutes(1)));
+
+        transactionTemplate.executeWithoutResult(status -> revocationList.revoke(tokenId, expiresAt));
+
+        assertThat(revocationList.isRevoked(tokenId)).isTrue();
+        assertThat(revokedTokenRepository.findById(tokenId)).isPresent();
+    }
+
+    @Test
+    void revokedTokenIsStoredOnce() {
+        String tokenId = UUID.randomUUID().toString();
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        revocationList.revoke(tokenId, expiresAt);
+        revocationList.revoke(tokenId, expiresAt);
+
+        assertThat(revocationList.isRevoked(tokenId)).isTrue();
+        assertThat(revokedTokenRepository.findById(tokenId)).isPresent();
+    }
+}
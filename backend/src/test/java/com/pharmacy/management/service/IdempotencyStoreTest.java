@@ -0,0 +1,50 @@
+package com.pharmacy.management.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyStoreTest {
+
+    private static final byte[] FINGERPRINT = {1, 2, 3};
+
+    @Test
+    void fullStoreKeepsStoredKeysAndRefusesNewOnes() {
+        IdempotencyStore store = new IdempotencyStore(Duration.ofHours(1), 1);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThat(store.execute("a", FINGERPRINT, created(calls)).getOutcome())
+                .isEqualTo(IdempotencyStore.Outcome.EXECUTED);
+        assertThat(store.execute("b", FINGERPRINT, created(calls)).getOutcome())
+                .isEqualTo(IdempotencyStore.Outcome.STORE_FULL);
+        assertThat(store.execute("a", FINGERPRINT, created(calls)).getOutcome())
+                .isEqualTo(IdempotencyStore.Outcome.REPLAYED);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void expiredKeysFreeTheirSpace() throws InterruptedException {
+        IdempotencyStore store = new IdempotencyStore(Duration.ofMillis(50), 1);
+        AtomicInteger calls = new AtomicInteger();
+
+        store.execute("a", FINGERPRINT, created(calls));
+        Thread.sleep(200);
+
+        assertThat(store.execute("b", FINGERPRINT, created(calls)).getOutcome())
+                .isEqualTo(IdempotencyStore.Outcome.EXECUTED);
+        assertThat(calls).hasValue(2);
+    }
+
+    private static Supplier<IdempotencyStore.StoredResponse> created(AtomicInteger calls) {
+        return () -> {
+            calls.incrementAndGet();
+            return new IdempotencyStore.StoredResponse(FINGERPRINT, 201, "application/json",
+                    "{}".getBytes(StandardCharsets.UTF_8));
+        };
+    }
+}
@@ -0,0 +1,156 @@
+package com.pharmacy.management.service;
+
+import com.pharmacy.management.model.Order;
+import com.pharmacy.management.model.OrderItem;
+import com.pharmacy.management.model.Product;
+import com.pharmacy.management.model.User;
+import com.pharmacy.management.payload.UserSummary;
+import com.pharmacy.management.repository.OrderRepository;
+import com.pharmacy.management.repository.ProductRepository;
+import com.pharmacy.management.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the JDBC statements behind the order lists, which are serialized with their user, items and products,
+ * and behind the user list, which is not serialized with orders.
+ * Everything is read inside one transaction, so any lazy load would add a statement rather than fail.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderHistoryQueryCountTest {
+
+    private static final int ORDERS = 500;
+    private static final int ITEMS_PER_ORDER = 3;
+    private static final int PRODUCTS = 20;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User customer;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        User user = new User();
+        user.setName("History Customer");
+        user.setEmail("history-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("not-used");
+        user.setRole(User.Role.CUSTOMER);
+        customer = userRepository.save(user);
+
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("History SKU " + i);
+            product.setCategory("Test");
+            product.setPrice(new BigDecimal("1.00"));
+            product.setStock(100);
+            product.setRequiresPrescription(false);
+            products.add(product);
+        }
+        products = productRepository.saveAll(products);
+
+        List<Order> orders = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setUser(customer);
+            order.setOrderDate(LocalDateTime.now().minusMinutes(i));
+            order.setStatus(Order.OrderStatus.PENDING);
+            order.setShippingAddress("1 Test Street");
+            order.setTotalPrice(new BigDecimal("3.00"));
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                OrderItem item = new OrderItem();
+                item.setOrder(order);
+                item.setProduct(products.get((i + j) % PRODUCTS));
+                item.setQuantity(1);
+                item.setPrice(new BigDecimal("1.00"));
+                order.getOrderItems().add(item);
+            }
+            orders.add(order);
+        }
+        orderRepository.saveAll(orders);
+    }
+
+    @Test
+    void orderHistoryIsOneStatement() {
+        assertThat(countStatements(1, () -> orderService.getOrdersByUser(customer))).hasSize(ORDERS);
+    }
+
+    @Test
+    void pageOfAllOrdersIsTwoStatements() {
+        // The largest page allowed; the newest orders are the ones just created
+        assertThat(countStatements(2, () -> orderService.getAllOrders(null, 200).getItems())).hasSize(200);
+    }
+
+    @Test
+    void singleOrderIsOneStatement() {
+        Long id = orderRepository.findByUser(customer).get(0).getId();
+        assertThat(countStatements(1, () -> List.of(orderService.getOrderById(id)))).hasSize(1);
+    }
+
+    @Test
+    void pageOfUsersIsOneStatementWithoutTheirOrders() {
+        List<UserSummary> users = transactionTemplate.execute(status -> {
+            statistics.clear();
+            List<UserSummary> page = userService.getAllUsers(null, 200).getItems();
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+            return page;
+        });
+        // The newest user is the one holding all the orders
+        assertThat(users.get(0).getId()).isEqualTo(customer.getId());
+    }
+
+    /**
+     * Run a lookup and walk everything the order endpoints serialize, asserting how many statements it took
+     */
+    private List<Order> countStatements(long expected, Supplier<List<Order>> lookup) {
+        return transactionTemplate.execute(status -> {
+            statistics.clear();
+            List<Order> orders = lookup.get();
+            for (Order order : orders) {
+                assertThat(order.getUser().getEmail()).isNotNull();
+                assertThat(order.getOrderItems()).hasSize(ITEMS_PER_ORDER);
+                order.getOrderItems().forEach(item -> assertThat(item.getProduct().getName()).isNotNull());
+            }
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(expected);
+            return orders;
+        });
+    }
+}
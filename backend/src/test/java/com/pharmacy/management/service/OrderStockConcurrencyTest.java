@@ -0,0 +1,157 @@
+package com.pharmacy.management.service;
+
+import com.pharmacy.management.model.Product;
+import com.pharmacy.management.model.User;
+import com.pharmacy.management.payload.OrderRequest;
+import com.pharmacy.management.repository.ProductRepository;
+import com.pharmacy.management.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires many parallel orders at the same products and checks stock is never oversold
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderStockConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = userRepository.findByEmail("user@example.com").orElseThrow();
+    }
+
+    @Test
+    void parallelOrdersForOneProductSellExactlyTheStock() throws Exception {
+        int stock = 500;
+        int attempts = 3000;
+        Long productId = createProduct("Concurrency SKU", stock).getId();
+
+        AtomicBoolean oversold = new AtomicBoolean();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread watcher = new Thread(() -> {
+            while (!done.get()) {
+                if (productRepository.findById(productId).orElseThrow().getStock() < 0) {
+                    oversold.set(true);
+                }
+            }
+        });
+        watcher.start();
+
+        Outcomes outcomes = placeInParallel(attempts, i -> order(productId, 1));
+        done.set(true);
+        watcher.join();
+
+        assertThat(outcomes.unexpected).isEmpty();
+        assertThat(oversold).isFalse();
+        assertThat(outcomes.placed.get()).isEqualTo(stock);
+        assertThat(outcomes.rejected.get()).isEqualTo(attempts - stock);
+        assertThat(productRepository.findById(productId).orElseThrow().getStock()).isZero();
+    }
+
+    @Test
+    void ordersTakingProductsInOppositeOrderDoNotDeadlock() throws Exception {
+        int stock = 400;
+        Long a = createProduct("Concurrency SKU A", stock).getId();
+        Long b = createProduct("Concurrency SKU B", stock).getId();
+
+        // Half the orders list A then B and half B then A; each takes one of each
+        Outcomes outcomes = placeInParallel(1000, i -> i % 2 == 0 ? order(a, 1, b, 1) : order(b, 1, a, 1));
+
+        assertThat(outcomes.unexpected).isEmpty();
+        assertThat(outcomes.placed.get()).isEqualTo(stock);
+        assertThat(productRepository.findById(a).orElseThrow().getStock()).isZero();
+        assertThat(productRepository.findById(b).orElseThrow().getStock()).isZero();
+    }
+
+    private Outcomes placeInParallel(int attempts, java.util.function.IntFunction<OrderRequest> requests) throws Exception {
+        Outcomes outcomes = new Outcomes();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(attempts);
+            for (int i = 0; i < attempts; i++) {
+                OrderRequest request = requests.apply(i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        orderService.createOrder(request, customer);
+                        outcomes.placed.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        // Not enough stock left
+                        outcomes.rejected.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        outcomes.unexpected.add(e);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return outcomes;
+    }
+
+    private Product createProduct(String name, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setCategory("Test");
+        product.setPrice(new BigDecimal("1.00"));
+        product.setStock(stock);
+        product.setRequiresPrescription(false);
+        return productRepository.save(product);
+    }
+
+    private static OrderRequest order(Object... productsAndQuantities) {
+        List<OrderRequest.OrderItemRequest> items = new ArrayList<>();
+        for (int i = 0; i < productsAndQuantities.length; i += 2) {
+            OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest();
+            item.setProductId((Long) productsAndQuantities[i]);
+            item.setQuantity((Integer) productsAndQuantities[i + 1]);
+            items.add(item);
+        }
+        OrderRequest request = new OrderRequest();
+        request.setShippingAddress("1 Test Street");
+        request.setItems(items);
+        return request;
+    }
+
+    private static class Outcomes {
+        private final AtomicInteger placed = new AtomicInteger();
+        private final AtomicInteger rejected = new AtomicInteger();
+        private final ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+    }
+}
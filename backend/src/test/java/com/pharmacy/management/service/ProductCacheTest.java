@@ -0,0 +1,48 @@
+package com.pharmacy.management.service;
+
+import com.pharmacy.management.payload.ProductSummary;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCacheTest {
+
+    @Test
+    void listLoadedAcrossAnInvalidationIsNotKept() {
+        ProductCache cache = new ProductCache(100, 100, Duration.ofMinutes(10));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getList("all", () -> {
+            loads.incrementAndGet();
+            // A product changes and its commit invalidates the lists while this load is still running
+            cache.onProductChanged(new ProductChangedEvent(Set.of(1L)));
+            return List.<ProductSummary>of();
+        });
+        cache.getList("all", () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void listLoadedWithoutAnInvalidationIsKept() {
+        ProductCache cache = new ProductCache(100, 100, Duration.ofMinutes(10));
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            cache.getList("all", () -> {
+                loads.incrementAndGet();
+                return List.of();
+            });
+        }
+
+        assertThat(loads).hasValue(1);
+    }
+}
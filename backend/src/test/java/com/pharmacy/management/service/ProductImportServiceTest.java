@@ -0,0 +1,77 @@
+package com.pharmacy.management.service;
+
+import com.pharmacy.management.model.Product;
+import com.pharmacy.management.payload.ProductImportReport;
+import com.pharmacy.management.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void reimportWithoutOptionalColumnsKeepsThem() throws IOException {
+        String name = "Import " + UUID.randomUUID();
+        importProducts(ProductImportService.Format.CSV,
+                "name,description,category,price,stock,imageUrl,requiresPrescription\n" +
+                name + ",Full description,Test,1.00,10,https://example.com/a.png,false\n");
+
+        ProductImportReport report = importProducts(ProductImportService.Format.CSV,
+                "name,category,price,stock,requiresPrescription\n" +
+                name + ",Test,2.50,7,false\n");
+
+        assertThat(report.getUpdated()).isEqualTo(1);
+        Product product = findByName(name);
+        assertThat(product.getPrice()).isEqualByComparingTo(new BigDecimal("2.50"));
+        assertThat(product.getStock()).isEqualTo(7);
+        assertThat(product.getDescription()).isEqualTo("Full description");
+        assertThat(product.getImageUrl()).isEqualTo("https://example.com/a.png");
+    }
+
+    @Test
+    void reimportWithEmptyOptionalFieldClearsIt() throws IOException {
+        String name = "Import " + UUID.randomUUID();
+        importProducts(ProductImportService.Format.JSONL,
+                "{\"name\":\"" + name + "\",\"description\":\"Full description\",\"category\":\"Test\"," +
+                "\"price\":1.00,\"stock\":10,\"imageUrl\":\"https://example.com/a.png\",\"requiresPrescription\":false}\n");
+
+        importProducts(ProductImportService.Format.JSONL,
+                "{\"name\":\"" + name + "\",\"description\":null,\"category\":\"Test\"," +
+                "\"price\":1.00,\"stock\":10,\"requiresPrescription\":false}\n");
+
+        Product product = findByName(name);
+        assertThat(product.getDescription()).isNull();
+        assertThat(product.getImageUrl()).isEqualTo("https://example.com/a.png");
+    }
+
+    private ProductImportReport importProducts(ProductImportService.Format format, String input) throws IOException {
+        ProductImportReport report = productImportService.importProducts(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), format);
+        assertThat(report.getErrors()).isEmpty();
+        return report;
+    }
+
+    private Product findByName(String name) {
+        return productRepository.findAll().stream()
+                .filter(product -> product.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
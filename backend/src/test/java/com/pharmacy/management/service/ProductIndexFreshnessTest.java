@@ -0,0 +1,112 @@
+package com.pharmacy.management.service;
+
+import com.pharmacy.management.model.Order;
+import com.pharmacy.management.model.Product;
+import com.pharmacy.management.model.User;
+import com.pharmacy.management.payload.CatalogQueryRequest;
+import com.pharmacy.management.payload.OrderRequest;
+import com.pharmacy.management.payload.SuggestionResponse;
+import com.pharmacy.management.repository.ProductRepository;
+import com.pharmacy.management.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The in-memory indexes re-read products after each commit; they must see the committed rows, not entities
+ * left over in the persistence context of the transaction that changed them, and stop counting cancelled orders
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductIndexFreshnessTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductSuggester productSuggester;
+
+    @Test
+    void cancelledOrderPutsProductBackInStock() {
+        String category = "Freshness " + UUID.randomUUID();
+        Long productId = createProduct("Freshness SKU", category);
+
+        Order order = orderOne(productId);
+        assertThat(inStock(category)).isEmpty();
+
+        orderService.cancelOrder(order.getId());
+
+        assertThat(productRepository.findById(productId).orElseThrow().getStock()).isEqualTo(1);
+        assertThat(inStock(category)).containsExactly(productId);
+        assertThat(productService.getCatalogFacets(query(category, null)).getInStock().get(true)).isEqualTo(1L);
+    }
+
+    @Test
+    void cancelledOrderNoLongerRanksSuggestions() {
+        String word = "sug" + UUID.randomUUID().toString().replace("-", "");
+        String category = "Freshness " + UUID.randomUUID();
+        createProduct(word + " a", category);
+        Long ordered = createProduct(word + " bbbb", category);
+        // Unordered, the shorter name ranks first
+        assertThat(suggestions(word)).containsExactly(word + " a", word + " bbbb");
+
+        Order order = orderOne(ordered);
+        assertThat(suggestions(word)).containsExactly(word + " bbbb", word + " a");
+
+        orderService.cancelOrder(order.getId());
+        assertThat(suggestions(word)).containsExactly(word + " a", word + " bbbb");
+    }
+
+    private Long createProduct(String name, String category) {
+        Product product = new Product();
+        product.setName(name);
+        product.setCategory(category);
+        product.setPrice(new BigDecimal("1.00"));
+        product.setStock(1);
+        product.setRequiresPrescription(false);
+        return productService.createProduct(product).getId();
+    }
+
+    private Order orderOne(Long productId) {
+        User customer = userRepository.findByEmail("user@example.com").orElseThrow();
+        OrderRequest.OrderItemRequest item = new OrderRequest.OrderItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(1);
+        OrderRequest request = new OrderRequest();
+        request.setShippingAddress("1 Test Street");
+        request.setItems(List.of(item));
+        return orderService.createOrder(request, customer);
+    }
+
+    private List<String> suggestions(String prefix) {
+        return productSuggester.suggest(prefix, ProductSuggester.MAX_SUGGESTIONS).stream()
+                .map(SuggestionResponse::getText).toList();
+    }
+
+    private List<Long> inStock(String category) {
+        return productService.queryCatalog(query(category, true)).getItems().stream().map(Product::getId).toList();
+    }
+
+    private static CatalogQueryRequest query(String category, Boolean inStock) {
+        CatalogQueryRequest query = new CatalogQueryRequest();
+        query.setCategory(List.of(category));
+        query.setInStock(inStock);
+        return query;
+    }
+}
@@ -9,8 +9,8 @@ const NavBar = () => {
 
     console.log('NavBar values:', { currentUser });
 
-    const handleLogout = () => {
-        logout();
+    const handleLogout = async () => {
+        await logout();
         navigate('/');
     };
 
@@ -19,9 +19,10 @@ const ProductCard = ({ product }) => {
                 <Card.Title>{product.name}</Card.Title>
 
                 <Card.Text className="flex-grow-1">
-                    {product.description?.length > 100
-                        ? `${product.description.substring(0, 100)}...`
-                        : product.description}
+                    {/* Product lists carry an excerpt one character longer than shown, so a cut can be marked */}
+                    {product.excerpt?.length > 100
+                        ? `${product.excerpt.substring(0, 100)}...`
+                        : product.excerpt}
                 </Card.Text>
 
                 <div className="d-flex justify-content-between align-items-center mb-2">
@@ -26,6 +26,7 @@ export const USER_ENDPOINTS = {
 export const PRODUCT_ENDPOINTS = {
     ALL: `${API_BASE_URL}/products`,
     BY_ID: (id) => `${API_BASE_URL}/products/${id}`,
+    BATCH: `${API_BASE_URL}/products/batch`,
     BY_CATEGORY: (category) => `${API_BASE_URL}/products/category/${category}`,
     SEARCH: `${API_BASE_URL}/products/search`
 };
@@ -81,7 +81,7 @@ const ProductList = () => {
         if (searchTerm) {
             result = result.filter(product =>
                 product.name.toLowerCase().includes(searchTerm.toLowerCase()) ||
-                (product.description && product.description.toLowerCase().includes(searchTerm.toLowerCase()))
+                (product.excerpt && product.excerpt.toLowerCase().includes(searchTerm.toLowerCase()))
             );
         }
 
@@ -12,6 +12,8 @@ const Orders = () => {
     const [showDetailsModal, setShowDetailsModal] = useState(false);
     const [currentOrder, setCurrentOrder] = useState(null);
     const [newStatus, setNewStatus] = useState('');
+    const [nextCursor, setNextCursor] = useState(null);
+    const [loadingMore, setLoadingMore] = useState(false);
 
     useEffect(() => {
         fetchOrders();
@@ -20,9 +22,10 @@ const Orders = () => {
     const fetchOrders = async () => {
         try {
             setLoading(true);
-            const data = await orderService.getAllOrders();
-            setOrders(data);
-            setFilteredOrders(data);
+            const { items, nextCursor } = await orderService.getAllOrders();
+            setOrders(items);
+            setFilteredOrders(items);
+            setNextCursor(nextCursor);
             setError(null);
         } catch (err) {
             setError('Failed to load orders. Please try again later.');
@@ -32,6 +35,20 @@ const Orders = () => {
         }
     };
 
+    const handleLoadMore = async () => {
+        try {
+            setLoadingMore(true);
+            const page = await orderService.getAllOrders(nextCursor);
+            setOrders(previous => [...previous, ...page.items]);
+            setNextCursor(page.nextCursor);
+        } catch (err) {
+            alert(err.response?.data?.message || 'Failed to load more orders');
+            console.error('Error fetching orders:', err);
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     // Filter orders when status filter changes
     useEffect(() => {
         if (statusFilter) {
@@ -175,6 +192,13 @@ const Orders = () => {
                                     )}
                                 </tbody>
                             </Table>
+                            {nextCursor && (
+                                <div className="text-center">
+                                    <Button variant="outline-primary" onClick={handleLoadMore} disabled={loadingMore}>
+                                        {loadingMore ? 'Loading...' : 'Load more'}
+                                    </Button>
+                                </div>
+                            )}
                         </div>
                     )}
                 </Card.Body>
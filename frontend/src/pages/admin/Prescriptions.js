@@ -11,13 +11,16 @@ const Prescriptions = () => {
     const [filterStatus, setFilterStatus] = useState('');
     const [showDetailsModal, setShowDetailsModal] = useState(false);
     const [currentPrescription, setCurrentPrescription] = useState(null);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [loadingMore, setLoadingMore] = useState(false);
 
     useEffect(() => {
         const fetchPrescriptions = async () => {
             try {
                 setLoading(true);
-                const data = await prescriptionService.getAllPrescriptions();
-                setPrescriptions(data);
+                const { items, nextCursor } = await prescriptionService.getAllPrescriptions();
+                setPrescriptions(items);
+                setNextCursor(nextCursor);
                 setError(null);
             } catch (err) {
                 setError('Failed to load prescriptions. Please try again later.');
@@ -30,6 +33,20 @@ const Prescriptions = () => {
         fetchPrescriptions();
     }, []);
 
+    const handleLoadMore = async () => {
+        try {
+            setLoadingMore(true);
+            const page = await prescriptionService.getAllPrescriptions(nextCursor);
+            setPrescriptions(previous => [...previous, ...page.items]);
+            setNextCursor(page.nextCursor);
+        } catch (err) {
+            alert(err.response?.data?.message || 'Failed to load more prescriptions');
+            console.error('Error fetching prescriptions:', err);
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     const handleVerifyPrescription = async (id) => {
         try {
             setLoading(true);
@@ -423,6 +440,13 @@ const Prescriptions = () => {
                                 ))}
                             </tbody>
                         </Table>
+                        {nextCursor && (
+                            <div className="text-center">
+                                <Button variant="outline-primary" onClick={handleLoadMore} disabled={loadingMore}>
+                                    {loadingMore ? 'Loading...' : 'Load more'}
+                                </Button>
+                            </div>
+                        )}
                     </div>
                 </Card.Body>
             </Card>
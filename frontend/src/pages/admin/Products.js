@@ -54,7 +54,7 @@ const Products = () => {
         if (searchTerm) {
             result = result.filter(product =>
                 product.name.toLowerCase().includes(searchTerm.toLowerCase()) ||
-                product.description.toLowerCase().includes(searchTerm.toLowerCase())
+                (product.excerpt && product.excerpt.toLowerCase().includes(searchTerm.toLowerCase()))
             );
         }
 
@@ -81,12 +81,21 @@ const Products = () => {
         setShowAddModal(true);
     };
 
-    const handleEditProduct = (product) => {
+    const handleEditProduct = async (summary) => {
+        // The list only has an excerpt of the description; load the whole product so saving keeps it
+        let product;
+        try {
+            product = await productService.getProductById(summary.id);
+        } catch (err) {
+            alert(err.response?.data?.message || 'Failed to load product');
+            console.error('Error loading product:', err);
+            return;
+        }
         setProductForm({
             id: product.id,
             name: product.name,
             category: product.category,
-            description: product.description,
+            description: product.description || '',
             price: product.price,
             stock: product.stock,
             imageUrl: product.imageUrl || '',
@@ -1,5 +1,6 @@
 import api from '../utils/apiInterceptor';
 import { AUTH_ENDPOINTS } from '../config/apiConfig';
+import { getRefreshToken, removeToken } from '../utils/auth';
 
 /**
  * Login with email and password
@@ -36,18 +37,18 @@ const register = async (userData) => {
 };
 
 /**
- * Logout the current user
+ * Logout the current user, revoking their tokens on the server
  * @returns {Promise<void>}
  */
 const logout = async () => {
     try {
-        await api.post(AUTH_ENDPOINTS.LOGOUT);
+        await api.post(AUTH_ENDPOINTS.LOGOUT, { refreshToken: getRefreshToken() });
         // Clear any local authentication data
-        localStorage.removeItem('token');
+        removeToken();
     } catch (error) {
         console.error('Logout failed:', error);
-        // Still remove the token even if the API call fails
-        localStorage.removeItem('token');
+        // Still remove the tokens even if the API call fails
+        removeToken();
         throw error;
     }
 };
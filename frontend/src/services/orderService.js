@@ -223,13 +223,14 @@ const orderService = {
     },
 
     /**
-     * Get all orders (admin only)
-     * @returns {Promise<Array>} List of all orders
+     * Get one page of all orders, newest first (admin only)
+     * @param {string} [cursor] - Cursor of the page to load, omitted for the first page
+     * @returns {Promise<{items: Array, nextCursor: string|null}>} Orders and the cursor of the next page, if any
      */
-    getAllOrders: async () => {
+    getAllOrders: async (cursor) => {
         try {
-            const response = await api.get(ORDER_ENDPOINTS.ALL);
-            return response.data;
+            const response = await api.get(ORDER_ENDPOINTS.ALL, { params: { cursor } });
+            return { items: response.data, nextCursor: response.headers['x-next-cursor'] || null };
         } catch (error) {
             console.error('Error fetching all orders:', error);
             throw error;
@@ -54,13 +54,14 @@ const getPaymentByOrder = async (orderId) => {
 };
 
 /**
- * Get all payments (admin function)
- * @returns {Promise<Array>} List of all payments
+ * Get one page of all payments, newest first (admin function)
+ * @param {string} [cursor] - Cursor of the page to load, omitted for the first page
+ * @returns {Promise<{items: Array, nextCursor: string|null}>} Payments and the cursor of the next page, if any
  */
-const getAllPayments = async () => {
+const getAllPayments = async (cursor) => {
     try {
-        const response = await api.get(PAYMENT_ENDPOINTS.ALL);
-        return response.data;
+        const response = await api.get(PAYMENT_ENDPOINTS.ALL, { params: { cursor } });
+        return { items: response.data, nextCursor: response.headers['x-next-cursor'] || null };
     } catch (error) {
         console.error('Error fetching all payments:', error);
         throw error;
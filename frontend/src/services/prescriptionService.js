@@ -126,13 +126,14 @@ const prescriptionService = {
     },
 
     /**
-     * Get all prescriptions (for admin/pharmacist)
-     * @returns {Promise<Array>} Array of all prescription objects
+     * Get one page of all prescriptions, newest first (for admin/pharmacist)
+     * @param {string} [cursor] - Cursor of the page to load, omitted for the first page
+     * @returns {Promise<{items: Array, nextCursor: string|null}>} Prescriptions and the cursor of the next page, if any
      */
-    getAllPrescriptions: async () => {
+    getAllPrescriptions: async (cursor) => {
         try {
-            const response = await api.get(PRESCRIPTION_ENDPOINTS.ALL_ADMIN);
-            return response.data;
+            const response = await api.get(PRESCRIPTION_ENDPOINTS.ALL_ADMIN, { params: { cursor } });
+            return { items: response.data, nextCursor: response.headers['x-next-cursor'] || null };
         } catch (error) {
             console.error('Error fetching all prescriptions:', error);
             throw error;
@@ -21,6 +21,16 @@ const getProductById = async (id) => {
     }
 };
 
+const getProductsByIds = async (ids) => {
+    try {
+        const response = await api.get(PRODUCT_ENDPOINTS.BATCH, { params: { ids: ids.join(',') } });
+        return response.data.items;
+    } catch (error) {
+        console.error(`Error fetching products ${ids.join(', ')}:`, error);
+        throw error;
+    }
+};
+
 const getProductsByCategory = async (category) => {
     try {
         const response = await api.get(PRODUCT_ENDPOINTS.BY_CATEGORY(category));
@@ -85,6 +95,7 @@ const deleteProduct = async (id) => {
 const productService = {
     getAllProducts,
     getProductById,
+    getProductsByIds,
     getProductsByCategory,
     searchProducts,
     getProductsByPrescriptionRequirement,
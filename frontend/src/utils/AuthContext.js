@@ -20,11 +20,11 @@ export const AuthProvider = ({ children }) => {
                 const decodedToken = jwt_decode(token);
                 const currentTime = Date.now() / 1000;
 
-                if (decodedToken.exp < currentTime) {
-                    // Token is expired
+                if (decodedToken.exp < currentTime && !localStorage.getItem('refreshToken')) {
+                    // Token is expired and cannot be refreshed
                     logout();
                 } else {
-                    // Token is valid, set current user
+                    // Token is valid or will be refreshed on the first request, set current user
                     // First try to use the stored user data if available
                     if (storedUser) {
                         try {
@@ -70,6 +70,7 @@ export const AuthProvider = ({ children }) => {
 
             // Save token to local storage
             localStorage.setItem('token', response.token);
+            localStorage.setItem('refreshToken', response.refreshToken);
 
             // Create user object
             const userData = {
@@ -107,8 +108,18 @@ export const AuthProvider = ({ children }) => {
         }
     };
 
-    const logout = () => {
+    const logout = async () => {
+        if (localStorage.getItem('refreshToken')) {
+            // Revoke the tokens on the server first: the request interceptor reads the access token
+            // from storage, so clearing it before the request goes out would send it unauthenticated
+            try {
+                await authService.logout();
+            } catch (err) {
+                // Sign out locally even if the server could not be reached
+            }
+        }
         localStorage.removeItem('token');
+        localStorage.removeItem('refreshToken');
         localStorage.removeItem('user');
         setCurrentUser(null);
         console.log('User logged out');
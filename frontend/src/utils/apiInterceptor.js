@@ -1,5 +1,5 @@
 import axios from 'axios';
-import { getAuthHeader, refreshToken, removeToken } from './auth';
+import { getAuthHeader, getRefreshToken, refreshToken, removeToken } from './auth';
 
 // Create axios instance with default config
 const api = axios.create({
@@ -37,8 +37,8 @@ api.interceptors.response.use(
     async (error) => {
         const originalRequest = error.config;
 
-        // Handle 401 Unauthorized errors
-        if (error.response && error.response.status === 401 && !originalRequest._retry) {
+        // Handle 401 Unauthorized errors; without a refresh token there is no session to renew
+        if (error.response && error.response.status === 401 && !originalRequest._retry && getRefreshToken()) {
             originalRequest._retry = true;
 
             try {
@@ -1,3 +1,5 @@
+import { AUTH_ENDPOINTS } from '../config/apiConfig';
+
 /**
  * Get the authentication token from localStorage
  */
@@ -14,10 +16,26 @@ export const setToken = (token) => {
 };
 
 /**
- * Remove the authentication token from localStorage
+ * Get the refresh token from localStorage
+ */
+export const getRefreshToken = () => {
+    return localStorage.getItem('refreshToken');
+};
+
+/**
+ * Set the refresh token in localStorage
+ * @param {string} token - Refresh token
+ */
+export const setRefreshToken = (token) => {
+    localStorage.setItem('refreshToken', token);
+};
+
+/**
+ * Remove the authentication and refresh tokens from localStorage
  */
 export const removeToken = () => {
     localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
 };
 
 /**
@@ -74,20 +92,33 @@ export const getUserFromToken = () => {
     }
 }
 
+// Refresh in progress, shared by concurrent callers
+let pendingRefresh = null;
+
 /**
- * Refresh the authentication token
+ * Exchange the refresh token for a new access token and refresh token.
+ * A refresh token can only be used once, so concurrent callers share one request.
  * @async
  * @returns {Promise<string>} New JWT token
  * @throws {Error} If token refresh fails
  */
-export const refreshToken = async () => {
+export const refreshToken = () => {
+    if (!pendingRefresh) {
+        pendingRefresh = doRefresh().finally(() => {
+            pendingRefresh = null;
+        });
+    }
+    return pendingRefresh;
+};
+
+const doRefresh = async () => {
     try {
-        const response = await fetch('/api/auth/refresh', {
+        const response = await fetch(AUTH_ENDPOINTS.REFRESH, {
             method: 'POST',
             headers: {
-                'Content-Type': 'application/json',
-                ...getAuthHeader()
-            }
+                'Content-Type': 'application/json'
+            },
+            body: JSON.stringify({ refreshToken: getRefreshToken() })
         });
 
         if (!response.ok) {
@@ -96,6 +127,7 @@ export const refreshToken = async () => {
 
         const data = await response.json();
         setToken(data.token);
+        setRefreshToken(data.refreshToken);
         return data.token;
     } catch (error) {
         console.error('Error refreshing token:', error);